@@ -0,0 +1,179 @@
+package com.example.erp.benchmark;
+
+import com.example.erp.entity.GradeCalculation;
+import com.example.erp.entity.GradingScheme;
+import com.example.erp.entity.GradingSchemeBand;
+import com.example.erp.service.CompiledGradingScheme;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grading one row with the former hard-coded BigDecimal rules against the compiled default
+ * scheme, through {@link CompiledGradingScheme#apply} and through the scaled-integer API the
+ * grade pipeline uses. Run with {@code -prof gc} to compare allocation per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GradingEngineBenchmark {
+    
+    private static final int ROWS = 4096;
+    
+    private GradeCalculation[] rows;
+    private long[] internal;
+    private long[] external;
+    private long[] assignment;
+    private CompiledGradingScheme scheme;
+    
+    @Setup
+    public void setUp() {
+        scheme = CompiledGradingScheme.compile(defaultScheme());
+        Random random = new Random(42);
+        rows = new GradeCalculation[ROWS];
+        internal = new long[ROWS];
+        external = new long[ROWS];
+        assignment = new long[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            internal[i] = random.nextInt(10_001);
+            external[i] = random.nextInt(10_001);
+            assignment[i] = random.nextInt(10_001);
+            GradeCalculation row = new GradeCalculation();
+            row.setInternalMarks(BigDecimal.valueOf(internal[i], 2));
+            row.setExternalMarks(BigDecimal.valueOf(external[i], 2));
+            row.setAssignmentMarks(BigDecimal.valueOf(assignment[i], 2));
+            rows[i] = row;
+        }
+        // Both engines must agree on every row before their speed is worth comparing
+        GradeCalculation expected = new GradeCalculation();
+        GradeCalculation actual = new GradeCalculation();
+        for (GradeCalculation row : rows) {
+            copyMarks(row, expected);
+            copyMarks(row, actual);
+            legacy(expected);
+            scheme.apply(actual);
+            if (!expected.getTotalMarks().equals(actual.getTotalMarks())
+                || !Objects.equals(expected.getGrade(), actual.getGrade())
+                || !expected.getGradePoints().equals(actual.getGradePoints())) {
+                throw new IllegalStateException("Engines disagree on " + row);
+            }
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void legacyBigDecimal(Blackhole blackhole) {
+        for (GradeCalculation row : rows) {
+            legacy(row);
+            blackhole.consume(row.getGrade());
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void compiledApply(Blackhole blackhole) {
+        for (GradeCalculation row : rows) {
+            scheme.apply(row);
+            blackhole.consume(row.getGrade());
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void compiledScaled(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            long total = scheme.totalHundredths(internal[i], external[i], assignment[i]);
+            blackhole.consume(scheme.band(total));
+        }
+    }
+    
+    private static void copyMarks(GradeCalculation from, GradeCalculation to) {
+        to.setInternalMarks(from.getInternalMarks());
+        to.setExternalMarks(from.getExternalMarks());
+        to.setAssignmentMarks(from.getAssignmentMarks());
+    }
+    
+    private static GradingScheme defaultScheme() {
+        GradingScheme scheme = new GradingScheme();
+        scheme.setName("Default");
+        scheme.setEffectiveFrom("2000-01");
+        scheme.setInternalWeight(new BigDecimal("0.30"));
+        scheme.setExternalWeight(new BigDecimal("0.60"));
+        scheme.setAssignmentWeight(new BigDecimal("0.10"));
+        scheme.setBands(new ArrayList<>(List.of(
+            band("90", "A+", "10.00"), band("80", "A", "9.00"), band("70", "B+", "8.00"), band("60", "B", "7.00"),
+            band("50", "C", "6.00"), band("40", "D", "5.00"), band("0", "F", "0.00"))));
+        return scheme;
+    }
+    
+    private static GradingSchemeBand band(String minMarks, String grade, String gradePoints) {
+        GradingSchemeBand band = new GradingSchemeBand();
+        band.setMinMarks(new BigDecimal(minMarks));
+        band.setGrade(grade);
+        band.setGradePoints(new BigDecimal(gradePoints));
+        return band;
+    }
+    
+    /** GradeCalculationService.calculateTotalMarksAndGrade before grading schemes */
+    private static void legacy(GradeCalculation gradeCalculation) {
+        BigDecimal internal = gradeCalculation.getInternalMarks() != null ? gradeCalculation.getInternalMarks() : BigDecimal.ZERO;
+        BigDecimal external = gradeCalculation.getExternalMarks() != null ? gradeCalculation.getExternalMarks() : BigDecimal.ZERO;
+        BigDecimal assignment = gradeCalculation.getAssignmentMarks() != null ? gradeCalculation.getAssignmentMarks() : BigDecimal.ZERO;
+        
+        BigDecimal totalMarks = internal.multiply(new BigDecimal("0.30"))
+            .add(external.multiply(new BigDecimal("0.60")))
+            .add(assignment.multiply(new BigDecimal("0.10")))
+            .setScale(2, RoundingMode.HALF_UP);
+        
+        gradeCalculation.setTotalMarks(totalMarks);
+        
+        String grade;
+        BigDecimal gradePoints;
+        
+        if (totalMarks.compareTo(new BigDecimal("90")) >= 0) {
+            grade = "A+";
+            gradePoints = new BigDecimal("10.00");
+        } else if (totalMarks.compareTo(new BigDecimal("80")) >= 0) {
+            grade = "A";
+            gradePoints = new BigDecimal("9.00");
+        } else if (totalMarks.compareTo(new BigDecimal("70")) >= 0) {
+            grade = "B+";
+            gradePoints = new BigDecimal("8.00");
+        } else if (totalMarks.compareTo(new BigDecimal("60")) >= 0) {
+            grade = "B";
+            gradePoints = new BigDecimal("7.00");
+        } else if (totalMarks.compareTo(new BigDecimal("50")) >= 0) {
+            grade = "C";
+            gradePoints = new BigDecimal("6.00");
+        } else if (totalMarks.compareTo(new BigDecimal("40")) >= 0) {
+            grade = "D";
+            gradePoints = new BigDecimal("5.00");
+        } else {
+            grade = "F";
+            gradePoints = new BigDecimal("0.00");
+        }
+        
+        gradeCalculation.setGrade(grade);
+        gradeCalculation.setGradePoints(gradePoints);
+    }
+}
@@ -1,17 +1,22 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.AcademicCalendar;
 import com.example.erp.service.AcademicCalendarService;
+import com.example.erp.service.ResourceVersionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/academic-calendar")
@@ -20,44 +25,79 @@ import java.util.List;
 public class AcademicCalendarController {
     
     private final AcademicCalendarService academicCalendarService;
+    private final ResourceVersionService resourceVersionService;
     
     @GetMapping
-    public ResponseEntity<List<AcademicCalendar>> getAllEvents() {
-        List<AcademicCalendar> events = academicCalendarService.getAllEvents();
-        return ResponseEntity.ok(events);
+    @PreAuthorize("!#page.unpaged or hasRole('ADMIN')")
+    public ResponseEntity<?> getAllEvents(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(academicCalendarService.getAllEvents());
+            }
+            return ResponseEntity.ok(academicCalendarService.getEventsPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching events: " + e.getMessage());
+        }
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<AcademicCalendar> getEventById(@PathVariable Long id) {
+    public ResponseEntity<AcademicCalendar> getEventById(@PathVariable Long id, WebRequest request) {
+        if (resourceVersionService.calendarEvent(id).isNotModified(request)) {
+            return null;
+        }
         return academicCalendarService.getEventById(id)
-            .map(event -> ResponseEntity.ok(event))
+            .map(event -> ResponseEntity.ok().cacheControl(ResourceVersionService.REVALIDATE).body(event))
             .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/academic-year/{academicYear}")
-    public ResponseEntity<List<AcademicCalendar>> getEventsByAcademicYear(@PathVariable String academicYear) {
+    public ResponseEntity<List<AcademicCalendar>> getEventsByAcademicYear(@PathVariable String academicYear, WebRequest request) {
+        if (resourceVersionService.calendarByAcademicYear(academicYear).isNotModified(request)) {
+            return null;
+        }
         List<AcademicCalendar> events = academicCalendarService.getEventsByAcademicYear(academicYear);
-        return ResponseEntity.ok(events);
+        return ResponseEntity.ok().cacheControl(ResourceVersionService.REVALIDATE).body(events);
     }
     
     @GetMapping("/upcoming")
-    public ResponseEntity<List<AcademicCalendar>> getUpcomingEvents() {
+    public ResponseEntity<List<AcademicCalendar>> getUpcomingEvents(WebRequest request) {
+        if (resourceVersionService.calendarUpcoming().isNotModified(request)) {
+            return null;
+        }
         List<AcademicCalendar> events = academicCalendarService.getUpcomingEvents();
-        return ResponseEntity.ok(events);
+        return ResponseEntity.ok().cacheControl(ResourceVersionService.REVALIDATE).body(events);
     }
     
     @GetMapping("/holidays")
-    public ResponseEntity<List<AcademicCalendar>> getHolidays() {
+    public ResponseEntity<List<AcademicCalendar>> getHolidays(WebRequest request) {
+        if (resourceVersionService.calendarHolidays().isNotModified(request)) {
+            return null;
+        }
         List<AcademicCalendar> holidays = academicCalendarService.getHolidays();
-        return ResponseEntity.ok(holidays);
+        return ResponseEntity.ok().cacheControl(ResourceVersionService.REVALIDATE).body(holidays);
     }
     
     @GetMapping("/date-range")
     public ResponseEntity<List<AcademicCalendar>> getEventsBetweenDates(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate, WebRequest request) {
+        if (resourceVersionService.calendarBetween(startDate, endDate).isNotModified(request)) {
+            return null;
+        }
         List<AcademicCalendar> events = academicCalendarService.getEventsBetweenDates(startDate, endDate);
-        return ResponseEntity.ok(events);
+        return ResponseEntity.ok().cacheControl(ResourceVersionService.REVALIDATE).body(events);
+    }
+    
+    @GetMapping("/working-day")
+    public ResponseEntity<Map<String, Object>> isWorkingDay(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) Long departmentId) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("date", date);
+        response.put("departmentId", departmentId);
+        response.put("workingDay", academicCalendarService.isWorkingDay(date, departmentId));
+        return ResponseEntity.ok(response);
     }
     
     @PostMapping
@@ -0,0 +1,75 @@
+package com.example.erp.controller;
+
+import com.example.erp.dto.PageQuery;
+import com.example.erp.service.AcademicStandingService;
+import com.example.erp.service.CohortRankingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/academic-standing")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AcademicStandingController {
+    
+    private final AcademicStandingService academicStandingService;
+    
+    @GetMapping("/student/{studentId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY') or hasRole('STAFF') or @ownership.isStudent(#studentId)")
+    public ResponseEntity<?> getStudentStanding(@PathVariable Long studentId) {
+        try {
+            return ResponseEntity.ok(academicStandingService.getStudentStanding(studentId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching academic standing: " + e.getMessage());
+        }
+    }
+    
+    @GetMapping("/batch/{batch}")
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getBatchRanking(@PathVariable String batch,
+                                             @RequestParam String academicYear,
+                                             @RequestParam Integer semester,
+                                             @RequestParam(defaultValue = "sgpa") String rankBy,
+                                             PageQuery page) {
+        try {
+            CohortRankingService.RankBy order = parseRankBy(rankBy);
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(academicStandingService.getBatchRanking(batch, academicYear, semester, order));
+            }
+            return ResponseEntity.ok(academicStandingService.getBatchRanking(batch, academicYear, semester, order, page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching batch ranking: " + e.getMessage());
+        }
+    }
+    
+    @GetMapping("/department/{departmentId}")
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getDepartmentRanking(@PathVariable Long departmentId,
+                                                  @RequestParam String academicYear,
+                                                  @RequestParam Integer semester,
+                                                  @RequestParam(defaultValue = "sgpa") String rankBy,
+                                                  PageQuery page) {
+        try {
+            CohortRankingService.RankBy order = parseRankBy(rankBy);
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(academicStandingService.getDepartmentRanking(departmentId, academicYear, semester, order));
+            }
+            return ResponseEntity.ok(academicStandingService.getDepartmentRanking(departmentId, academicYear, semester, order, page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching department ranking: " + e.getMessage());
+        }
+    }
+    
+    private static CohortRankingService.RankBy parseRankBy(String rankBy) {
+        try {
+            return CohortRankingService.RankBy.valueOf(rankBy.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid rankBy: " + rankBy + " (expected sgpa or cgpa)");
+        }
+    }
+}
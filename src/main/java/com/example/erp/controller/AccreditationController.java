@@ -1,5 +1,6 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Accreditation;
 import com.example.erp.service.AccreditationService;
 import lombok.RequiredArgsConstructor;
@@ -9,7 +10,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/accreditation")
@@ -20,9 +20,17 @@ public class AccreditationController {
     private final AccreditationService accreditationService;
     
     @GetMapping
-    public ResponseEntity<List<Accreditation>> getAllAccreditations() {
-        List<Accreditation> accreditations = accreditationService.getAllAccreditations();
-        return ResponseEntity.ok(accreditations);
+    @PreAuthorize("!#page.unpaged or hasRole('ADMIN')")
+    public ResponseEntity<?> getAllAccreditations(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(accreditationService.getAllAccreditations());
+            }
+            return ResponseEntity.ok(accreditationService.getAccreditationsPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching accreditations: " + e.getMessage());
+        }
     }
     
     @GetMapping("/{id}")
@@ -1,14 +1,22 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.AttendanceStats;
+import com.example.erp.dto.BulkAttendanceRequest;
+import com.example.erp.dto.BulkAttendanceResponse;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Attendance;
+import com.example.erp.service.AttendanceReportService;
 import com.example.erp.service.AttendanceService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -20,12 +28,20 @@ import java.util.List;
 public class AttendanceController {
 
     private final AttendanceService attendanceService;
+    private final AttendanceReportService attendanceReportService;
 
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
-    public ResponseEntity<List<Attendance>> getAllAttendance() {
-        List<Attendance> attendance = attendanceService.getAllAttendance();
-        return ResponseEntity.ok(attendance);
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAllAttendance(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(attendanceService.getAllAttendance());
+            }
+            return ResponseEntity.ok(attendanceService.getAttendancePage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching attendance: " + e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
@@ -37,43 +53,79 @@ public class AttendanceController {
     }
 
     @GetMapping("/student/{studentId}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @studentService.getStudentById(#studentId).get().userId == authentication.principal.userId")
-    public ResponseEntity<List<Attendance>> getAttendanceByStudent(@PathVariable Long studentId) {
-        List<Attendance> attendance = attendanceService.getAttendanceByStudent(studentId);
-        return ResponseEntity.ok(attendance);
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('FACULTY') or @ownership.isStudent(#studentId)) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAttendanceByStudent(@PathVariable Long studentId, PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(attendanceService.getAttendanceByStudent(studentId));
+            }
+            return ResponseEntity.ok(attendanceService.getAttendancePageByStudent(studentId, page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching attendance: " + e.getMessage());
+        }
     }
 
     @GetMapping("/subject/{subjectId}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
-    public ResponseEntity<List<Attendance>> getAttendanceBySubject(@PathVariable Long subjectId) {
-        List<Attendance> attendance = attendanceService.getAttendanceBySubject(subjectId);
-        return ResponseEntity.ok(attendance);
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAttendanceBySubject(@PathVariable Long subjectId, PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(attendanceService.getAttendanceBySubject(subjectId));
+            }
+            return ResponseEntity.ok(attendanceService.getAttendancePageBySubject(subjectId, page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching attendance: " + e.getMessage());
+        }
     }
 
     @GetMapping("/date/{date}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
-    public ResponseEntity<List<Attendance>> getAttendanceByDate(
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        List<Attendance> attendance = attendanceService.getAttendanceByDate(date);
-        return ResponseEntity.ok(attendance);
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAttendanceByDate(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date, PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(attendanceService.getAttendanceByDate(date));
+            }
+            return ResponseEntity.ok(attendanceService.getAttendancePageByDate(date, page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching attendance: " + e.getMessage());
+        }
     }
 
     @GetMapping("/student/{studentId}/subject/{subjectId}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @studentService.getStudentById(#studentId).get().userId == authentication.principal.userId")
-    public ResponseEntity<List<Attendance>> getAttendanceByStudentAndSubject(
-            @PathVariable Long studentId, @PathVariable Long subjectId) {
-        List<Attendance> attendance = attendanceService.getAttendanceByStudentAndSubject(studentId, subjectId);
-        return ResponseEntity.ok(attendance);
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('FACULTY') or @ownership.isStudent(#studentId)) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAttendanceByStudentAndSubject(
+            @PathVariable Long studentId, @PathVariable Long subjectId, PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(attendanceService.getAttendanceByStudentAndSubject(studentId, subjectId));
+            }
+            return ResponseEntity.ok(attendanceService.getAttendancePageByStudentAndSubject(studentId, subjectId, page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching attendance: " + e.getMessage());
+        }
     }
 
     @GetMapping("/student/{studentId}/daterange")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @studentService.getStudentById(#studentId).get().userId == authentication.principal.userId")
-    public ResponseEntity<List<Attendance>> getAttendanceByDateRange(
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('FACULTY') or @ownership.isStudent(#studentId)) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAttendanceByDateRange(
             @PathVariable Long studentId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        List<Attendance> attendance = attendanceService.getAttendanceByDateRange(studentId, startDate, endDate);
-        return ResponseEntity.ok(attendance);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(attendanceService.getAttendanceByDateRange(studentId, startDate, endDate));
+            }
+            return ResponseEntity.ok(attendanceService.getAttendancePageByDateRange(studentId, startDate, endDate, page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching attendance: " + e.getMessage());
+        }
     }
 
     @PostMapping
@@ -83,6 +135,18 @@ public class AttendanceController {
         return ResponseEntity.status(HttpStatus.CREATED).body(markedAttendance);
     }
 
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
+    public ResponseEntity<?> markBulkAttendance(@Valid @RequestBody BulkAttendanceRequest request) {
+        try {
+            BulkAttendanceResponse response = attendanceService.markBulkAttendance(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error marking bulk attendance: " + e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
     public ResponseEntity<Attendance> updateAttendance(@PathVariable Long id,
@@ -107,9 +171,57 @@ public class AttendanceController {
     }
 
     @GetMapping("/student/{studentId}/subject/{subjectId}/percentage")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @studentService.getStudentById(#studentId).get().userId == authentication.principal.userId")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @ownership.isStudent(#studentId)")
     public ResponseEntity<Double> getAttendancePercentage(@PathVariable Long studentId, @PathVariable Long subjectId) {
         double percentage = attendanceService.getAttendancePercentage(studentId, subjectId);
         return ResponseEntity.ok(percentage);
     }
+
+    @GetMapping("/student/{studentId}/percentages")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @ownership.isStudent(#studentId)")
+    public ResponseEntity<List<AttendanceStats>> getAttendancePercentagesByStudent(@PathVariable Long studentId) {
+        List<AttendanceStats> stats = attendanceService.getAttendanceStatsByStudent(studentId);
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/subject/{subjectId}/percentages")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
+    public ResponseEntity<List<AttendanceStats>> getAttendancePercentagesBySubject(@PathVariable Long subjectId) {
+        List<AttendanceStats> stats = attendanceService.getAttendanceStatsBySubject(subjectId);
+        return ResponseEntity.ok(stats);
+    }
+
+    @PostMapping("/summary/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Integer> rebuildAttendanceSummary() {
+        int rows = attendanceService.rebuildAttendanceSummary();
+        return ResponseEntity.ok(rows);
+    }
+
+    @GetMapping("/department/{departmentId}/shortage")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
+    public ResponseEntity<?> getShortageReport(
+            @PathVariable Long departmentId,
+            @RequestParam(defaultValue = "75") double threshold,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "json") String format) {
+        if (threshold < 0 || threshold > 100) {
+            return ResponseEntity.badRequest().body("Error generating report: threshold must be between 0 and 100");
+        }
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().body("Error generating report: startDate must not be after endDate");
+        }
+        boolean csv = "csv".equalsIgnoreCase(format);
+        StreamingResponseBody body = out -> attendanceReportService.writeShortageReport(
+                departmentId, threshold, startDate, endDate, csv, out);
+        if (csv) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"attendance-shortage-department-" + departmentId + ".csv\"")
+                    .body(body);
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 }
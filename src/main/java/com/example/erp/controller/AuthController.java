@@ -3,8 +3,14 @@ package com.example.erp.controller;
 import com.example.erp.dto.LoginRequest;
 import com.example.erp.dto.LoginResponse;
 import com.example.erp.security.JwtTokenProvider;
+import com.example.erp.security.LoginRateLimiter;
+import com.example.erp.security.PasswordHashingExecutor;
+import com.example.erp.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,6 +22,9 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * Controller for handling authentication requests
  */
@@ -27,14 +36,39 @@ public class AuthController {
     
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    
+    private static final int LOGIN_BUSY_RETRY_SECONDS = 2;
     
     /**
-     * Authenticate user and return JWT token
+     * Authenticate user and return JWT token. Rate limited per account and per IP; the password
+     * check runs on the bounded hashing pool and is refused with 503 when that pool is saturated.
      * @param loginRequest The login request containing email and password
+     * @param request The servlet request, used for the client address (resolved from X-Forwarded-For behind a trusted proxy)
      * @return JWT token and user details if authentication is successful
      */
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<LoginResponse>> login(@Valid @RequestBody LoginRequest loginRequest,
+                                                                  HttpServletRequest request) {
+        long retryAfter = loginRateLimiter.tryAcquire(loginRequest.getEmail(), request.getRemoteAddr());
+        if (retryAfter > 0) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(new LoginResponse("Too many login attempts, please retry later")));
+        }
+        
+        try {
+            return passwordHashingExecutor.submit(() -> authenticate(loginRequest));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(LOGIN_BUSY_RETRY_SECONDS))
+                .body(new LoginResponse("Login service is busy, please retry later")));
+        }
+    }
+    
+    private ResponseEntity<LoginResponse> authenticate(LoginRequest loginRequest) {
         try {
             Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
@@ -43,7 +77,6 @@ public class AuthController {
                 )
             );
             
-            SecurityContextHolder.getContext().setAuthentication(authentication);
             String token = tokenProvider.generateToken(authentication);
             
             return ResponseEntity.ok(new LoginResponse(
@@ -71,13 +104,19 @@ public class AuthController {
     }
     
     /**
-     * Logout user (client should remove the token)
+     * Logout user: revokes the presented token server-side until it expires
+     * @param authorization The Authorization header carrying the bearer token
      * @return Success message
      */
     @PostMapping("/logout")
-    public ResponseEntity<String> logout() {
-        // In a stateless JWT system, logout is handled client-side by removing the token
-        // For server-side token invalidation, you'd need a token blacklist or similar mechanism
+    public ResponseEntity<String> logout(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            String token = authorization.substring(7);
+            Claims claims = tokenProvider.validateAndGetClaims(token);
+            if (claims != null) {
+                tokenRevocationService.revoke(token, claims);
+            }
+        }
         SecurityContextHolder.clearContext();
         return ResponseEntity.ok("Logged out successfully. Please remove the token from client storage.");
     }
@@ -1,5 +1,6 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Backup;
 import com.example.erp.service.BackupService;
 import lombok.RequiredArgsConstructor;
@@ -9,7 +10,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
-import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -22,9 +22,16 @@ public class BackupController {
     
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Backup>> getAllBackups() {
-        List<Backup> backups = backupService.getAllBackups();
-        return ResponseEntity.ok(backups);
+    public ResponseEntity<?> getAllBackups(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(backupService.getAllBackups());
+            }
+            return ResponseEntity.ok(backupService.getBackupsPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching backups: " + e.getMessage());
+        }
     }
     
     @GetMapping("/{id}")
@@ -1,5 +1,6 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Department;
 import com.example.erp.service.DepartmentService;
 import jakarta.validation.Valid;
@@ -20,10 +21,17 @@ public class DepartmentController {
     private final DepartmentService departmentService;
 
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or hasRole('STUDENT')")
-    public ResponseEntity<List<Department>> getAllDepartments() {
-        List<Department> departments = departmentService.getAllDepartments();
-        return ResponseEntity.ok(departments);
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('FACULTY') or hasRole('STUDENT')) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAllDepartments(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(departmentService.getAllDepartments());
+            }
+            return ResponseEntity.ok(departmentService.getDepartmentsPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching departments: " + e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
@@ -1,5 +1,6 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Enrollment;
 import com.example.erp.service.EnrollmentService;
 import lombok.RequiredArgsConstructor;
@@ -20,10 +21,17 @@ public class EnrollmentController {
     private final EnrollmentService enrollmentService;
     
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('STAFF')")
-    public ResponseEntity<List<Enrollment>> getAllEnrollments() {
-        List<Enrollment> enrollments = enrollmentService.getAllEnrollments();
-        return ResponseEntity.ok(enrollments);
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('STAFF')) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAllEnrollments(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(enrollmentService.getAllEnrollments());
+            }
+            return ResponseEntity.ok(enrollmentService.getEnrollmentsPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching enrollments: " + e.getMessage());
+        }
     }
     
     @GetMapping("/{id}")
@@ -35,7 +43,7 @@ public class EnrollmentController {
     }
     
     @GetMapping("/student/{studentId}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('STAFF') or hasRole('FACULTY')")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('STAFF') or hasRole('FACULTY') or @ownership.isStudent(#studentId)")
     public ResponseEntity<List<Enrollment>> getEnrollmentsByStudent(@PathVariable Long studentId) {
         List<Enrollment> enrollments = enrollmentService.getEnrollmentsByStudent(studentId);
         return ResponseEntity.ok(enrollments);
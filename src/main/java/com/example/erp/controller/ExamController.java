@@ -1,5 +1,6 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Exam;
 import com.example.erp.service.ExamService;
 import jakarta.validation.Valid;
@@ -22,10 +23,17 @@ public class ExamController {
     private final ExamService examService;
 
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or hasRole('STUDENT')")
-    public ResponseEntity<List<Exam>> getAllExams() {
-        List<Exam> exams = examService.getAllExams();
-        return ResponseEntity.ok(exams);
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('FACULTY') or hasRole('STUDENT')) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAllExams(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(examService.getAllExams());
+            }
+            return ResponseEntity.ok(examService.getExamsPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching exams: " + e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
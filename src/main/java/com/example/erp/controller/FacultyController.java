@@ -1,5 +1,6 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Faculty;
 import com.example.erp.service.FacultyService;
 import jakarta.validation.Valid;
@@ -20,10 +21,17 @@ public class FacultyController {
     private final FacultyService facultyService;
 
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY')")
-    public ResponseEntity<List<Faculty>> getAllFaculty() {
-        List<Faculty> faculty = facultyService.getAllFaculty();
-        return ResponseEntity.ok(faculty);
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('FACULTY')) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAllFaculty(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(facultyService.getAllFaculty());
+            }
+            return ResponseEntity.ok(facultyService.getFacultyPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching faculty: " + e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
@@ -64,7 +72,7 @@ public class FacultyController {
     }
 
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @facultyService.getFacultyById(#id).get().userId == authentication.principal.userId")
+    @PreAuthorize("hasRole('ADMIN') or @ownership.isFaculty(#id)")
     public ResponseEntity<Faculty> updateFaculty(@PathVariable Long id, @Valid @RequestBody Faculty facultyDetails) {
         try {
             Faculty updatedFaculty = facultyService.updateFaculty(id, facultyDetails);
@@ -1,5 +1,6 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Fees;
 import com.example.erp.service.FeesService;
 import jakarta.validation.Valid;
@@ -21,10 +22,17 @@ public class FeesController {
     private final FeesService feesService;
 
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('STAFF')")
-    public ResponseEntity<List<Fees>> getAllFees() {
-        List<Fees> fees = feesService.getAllFees();
-        return ResponseEntity.ok(fees);
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('STAFF')) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAllFees(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(feesService.getAllFees());
+            }
+            return ResponseEntity.ok(feesService.getFeesPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching fees: " + e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
@@ -36,7 +44,7 @@ public class FeesController {
     }
 
     @GetMapping("/student/{studentId}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @studentService.getStudentById(#studentId).get().userId == authentication.principal.userId")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @ownership.isStudent(#studentId)")
     public ResponseEntity<List<Fees>> getFeesByStudent(@PathVariable Long studentId) {
         List<Fees> fees = feesService.getFeesByStudent(studentId);
         return ResponseEntity.ok(fees);
@@ -76,12 +84,14 @@ public class FeesController {
 
     @PostMapping("/{id}/payment")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('STAFF')")
-    public ResponseEntity<Fees> makePayment(@PathVariable Long id, @RequestParam BigDecimal amount) {
+    public ResponseEntity<?> makePayment(@PathVariable Long id, @RequestParam BigDecimal amount,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
-            Fees updatedFees = feesService.makePayment(id, amount);
+            Fees updatedFees = feesService.makePayment(id, amount, idempotencyKey);
             return ResponseEntity.ok(updatedFees);
         } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
+            return ResponseEntity.badRequest()
+                .body("Error making payment: " + e.getMessage());
         }
     }
 
@@ -97,7 +107,7 @@ public class FeesController {
     }
 
     @GetMapping("/student/{studentId}/pending-amount")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @studentService.getStudentById(#studentId).get().userId == authentication.principal.userId")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @ownership.isStudent(#studentId)")
     public ResponseEntity<BigDecimal> getTotalPendingAmount(@PathVariable Long studentId) {
         BigDecimal pendingAmount = feesService.getTotalPendingAmountByStudent(studentId);
         return ResponseEntity.ok(pendingAmount);
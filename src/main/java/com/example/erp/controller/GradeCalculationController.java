@@ -1,15 +1,23 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.GradeCalculation;
+import com.example.erp.entity.GradeRun;
+import com.example.erp.security.UserPrincipal;
 import com.example.erp.service.GradeCalculationService;
+import com.example.erp.service.GradePipelineService;
+import com.example.erp.service.ResultSnapshotService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/grade-calculation")
@@ -17,13 +25,54 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class GradeCalculationController {
     
+    private static final Set<String> GRADE_STAFF_ROLES = Set.of("ROLE_ADMIN", "ROLE_PRINCIPAL", "ROLE_FACULTY", "ROLE_STAFF");
+    
     private final GradeCalculationService gradeCalculationService;
+    private final GradePipelineService gradePipelineService;
+    private final ResultSnapshotService resultSnapshotService;
     
     @GetMapping
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAllGradeCalculations(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(gradeCalculationService.getAllGradeCalculations());
+            }
+            return ResponseEntity.ok(gradeCalculationService.getGradeCalculationsPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching grade calculations: " + e.getMessage());
+        }
+    }
+    
+    @PostMapping("/runs")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY')")
+    public ResponseEntity<?> startGradeRun(@RequestParam Long subjectId,
+                                           @RequestParam String academicYear,
+                                           @RequestParam Integer semester,
+                                           @AuthenticationPrincipal UserPrincipal principal) {
+        try {
+            GradeRun run = gradePipelineService.startRun(subjectId, academicYear, semester,
+                principal != null ? principal.getUserId() : null);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(run);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error starting grade run: " + e.getMessage());
+        }
+    }
+    
+    @GetMapping("/runs")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
-    public ResponseEntity<List<GradeCalculation>> getAllGradeCalculations() {
-        List<GradeCalculation> gradeCalculations = gradeCalculationService.getAllGradeCalculations();
-        return ResponseEntity.ok(gradeCalculations);
+    public ResponseEntity<List<GradeRun>> getGradeRunsBySubject(@RequestParam Long subjectId) {
+        return ResponseEntity.ok(gradePipelineService.getRunsBySubject(subjectId));
+    }
+    
+    @GetMapping("/runs/{id}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
+    public ResponseEntity<GradeRun> getGradeRun(@PathVariable Long id) {
+        return gradePipelineService.getRun(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/{id}")
@@ -35,12 +84,26 @@ public class GradeCalculationController {
     }
     
     @GetMapping("/student/{studentId}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY') or hasRole('STAFF')")
-    public ResponseEntity<List<GradeCalculation>> getGradeCalculationsByStudent(@PathVariable Long studentId) {
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY') or hasRole('STAFF') or @ownership.isStudent(#studentId)")
+    public ResponseEntity<?> getGradeCalculationsByStudent(@PathVariable Long studentId,
+                                                           @AuthenticationPrincipal UserPrincipal principal) {
+        // Only staff see grades before they are published; anyone else, the owning student
+        // included, gets the published results from the snapshot written at publish time
+        if (!isGradeStaff(principal)) {
+            return getPublishedResults(studentId);
+        }
         List<GradeCalculation> gradeCalculations = gradeCalculationService.getGradeCalculationsByStudent(studentId);
         return ResponseEntity.ok(gradeCalculations);
     }
     
+    @GetMapping("/student/{studentId}/results")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY') or hasRole('STAFF') or @ownership.isStudent(#studentId)")
+    public ResponseEntity<byte[]> getPublishedResults(@PathVariable Long studentId) {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(resultSnapshotService.getPublishedResults(studentId));
+    }
+    
     @GetMapping("/subject/{subjectId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
     public ResponseEntity<List<GradeCalculation>> getGradeCalculationsBySubject(@PathVariable Long subjectId) {
@@ -49,7 +112,7 @@ public class GradeCalculationController {
     }
     
     @GetMapping("/gpa/{studentId}/{academicYear}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY') or hasRole('STAFF')")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY') or hasRole('STAFF') or @ownership.isStudent(#studentId)")
     public ResponseEntity<Double> calculateGPA(@PathVariable Long studentId, @PathVariable String academicYear) {
         Double gpa = gradeCalculationService.calculateGPA(studentId, academicYear);
         return ResponseEntity.ok(gpa != null ? gpa : 0.0);
@@ -103,6 +166,32 @@ public class GradeCalculationController {
         }
     }
     
+    @PutMapping("/bulk/approve")
+    @PreAuthorize("hasRole('PRINCIPAL')")
+    public ResponseEntity<?> approveSemester(@RequestParam Long departmentId,
+                                             @RequestParam String academicYear,
+                                             @RequestParam Integer semester) {
+        try {
+            return ResponseEntity.ok(gradeCalculationService.approveSemester(departmentId, academicYear, semester));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error approving grades: " + e.getMessage());
+        }
+    }
+    
+    @PutMapping("/bulk/publish")
+    @PreAuthorize("hasRole('PRINCIPAL')")
+    public ResponseEntity<?> publishSemester(@RequestParam Long departmentId,
+                                             @RequestParam String academicYear,
+                                             @RequestParam Integer semester) {
+        try {
+            return ResponseEntity.ok(gradeCalculationService.publishSemester(departmentId, academicYear, semester));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error publishing grades: " + e.getMessage());
+        }
+    }
+    
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('FACULTY')")
     public ResponseEntity<?> deleteGradeCalculation(@PathVariable Long id) {
@@ -114,4 +203,9 @@ public class GradeCalculationController {
                 .body("Error deleting grade calculation: " + e.getMessage());
         }
     }
+    
+    private static boolean isGradeStaff(UserPrincipal principal) {
+        return principal != null && principal.getAuthorities().stream()
+            .anyMatch(authority -> GRADE_STAFF_ROLES.contains(authority.getAuthority()));
+    }
 }
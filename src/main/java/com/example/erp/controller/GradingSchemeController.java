@@ -0,0 +1,76 @@
+package com.example.erp.controller;
+
+import com.example.erp.entity.GradingScheme;
+import com.example.erp.service.GradingSchemeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/grading-schemes")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class GradingSchemeController {
+    
+    private final GradingSchemeService gradingSchemeService;
+    
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
+    public ResponseEntity<List<GradingScheme>> getAllSchemes() {
+        return ResponseEntity.ok(gradingSchemeService.getAllSchemes());
+    }
+    
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
+    public ResponseEntity<GradingScheme> getSchemeById(@PathVariable Long id) {
+        return gradingSchemeService.getSchemeById(id)
+            .map(scheme -> ResponseEntity.ok(scheme))
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/department/{departmentId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
+    public ResponseEntity<List<GradingScheme>> getSchemesByDepartment(@PathVariable Long departmentId) {
+        return ResponseEntity.ok(gradingSchemeService.getSchemesByDepartment(departmentId));
+    }
+    
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL')")
+    public ResponseEntity<?> createScheme(@RequestBody GradingScheme scheme) {
+        try {
+            GradingScheme createdScheme = gradingSchemeService.createScheme(scheme);
+            return ResponseEntity.status(HttpStatus.CREATED).body(createdScheme);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error creating grading scheme: " + e.getMessage());
+        }
+    }
+    
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL')")
+    public ResponseEntity<?> updateScheme(@PathVariable Long id, @RequestBody GradingScheme scheme) {
+        try {
+            GradingScheme updatedScheme = gradingSchemeService.updateScheme(id, scheme);
+            return ResponseEntity.ok(updatedScheme);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error updating grading scheme: " + e.getMessage());
+        }
+    }
+    
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> deleteScheme(@PathVariable Long id) {
+        try {
+            gradingSchemeService.deleteScheme(id);
+            return ResponseEntity.ok().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error deleting grading scheme: " + e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Homework;
 import com.example.erp.service.HomeworkService;
 import lombok.RequiredArgsConstructor;
@@ -20,10 +21,17 @@ public class HomeworkController {
     private final HomeworkService homeworkService;
     
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or hasRole('STUDENT')")
-    public ResponseEntity<List<Homework>> getAllHomework() {
-        List<Homework> homework = homeworkService.getAllHomework();
-        return ResponseEntity.ok(homework);
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('FACULTY') or hasRole('STUDENT')) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAllHomework(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(homeworkService.getAllHomework());
+            }
+            return ResponseEntity.ok(homeworkService.getHomeworkPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching homework: " + e.getMessage());
+        }
     }
     
     @GetMapping("/{id}")
@@ -35,7 +43,7 @@ public class HomeworkController {
     }
     
     @GetMapping("/student/{studentId}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or hasRole('STUDENT')")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @ownership.isStudent(#studentId)")
     public ResponseEntity<List<Homework>> getHomeworkByStudent(@PathVariable Long studentId) {
         List<Homework> homework = homeworkService.getHomeworkByStudent(studentId);
         return ResponseEntity.ok(homework);
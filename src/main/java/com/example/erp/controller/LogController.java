@@ -1,6 +1,8 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Log;
+import com.example.erp.service.LogPartitionMaintenance;
 import com.example.erp.service.LogService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -9,7 +11,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/logs")
@@ -18,12 +19,20 @@ import java.util.List;
 public class LogController {
     
     private final LogService logService;
+    private final LogPartitionMaintenance logPartitionMaintenance;
     
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Log>> getAllLogs() {
-        List<Log> logs = logService.getAllLogs();
-        return ResponseEntity.ok(logs);
+    public ResponseEntity<?> getAllLogs(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(logService.getAllLogs());
+            }
+            return ResponseEntity.ok(logService.getLogsPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching logs: " + e.getMessage());
+        }
     }
     
     @GetMapping("/{id}")
@@ -35,10 +44,17 @@ public class LogController {
     }
     
     @GetMapping("/user/{userId}")
-    @PreAuthorize("hasRole('ADMIN') or @userService.isCurrentUser(#userId)")
-    public ResponseEntity<List<Log>> getLogsByUser(@PathVariable Long userId) {
-        List<Log> logs = logService.getLogsByUser(userId);
-        return ResponseEntity.ok(logs);
+    @PreAuthorize("(hasRole('ADMIN') or @ownership.isUser(#userId)) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getLogsByUser(@PathVariable Long userId, PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(logService.getLogsByUser(userId));
+            }
+            return ResponseEntity.ok(logService.getLogsPageByUser(userId, page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching logs: " + e.getMessage());
+        }
     }
     
     @PostMapping
@@ -64,4 +80,15 @@ public class LogController {
                 .body("Error deleting log: " + e.getMessage());
         }
     }
+    
+    @PostMapping("/partitions/maintain")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> maintainPartitions() {
+        try {
+            return ResponseEntity.ok(logPartitionMaintenance.maintain());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error maintaining log partitions: " + e.getMessage());
+        }
+    }
 }
@@ -1,14 +1,23 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.MarksImportReport;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Marks;
+import com.example.erp.service.MarksImportService;
 import com.example.erp.service.MarksService;
+import com.example.erp.service.MarksStatisticsService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -18,12 +27,21 @@ import java.util.List;
 public class MarksController {
 
     private final MarksService marksService;
+    private final MarksImportService marksImportService;
+    private final MarksStatisticsService marksStatisticsService;
 
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
-    public ResponseEntity<List<Marks>> getAllMarks() {
-        List<Marks> marks = marksService.getAllMarks();
-        return ResponseEntity.ok(marks);
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAllMarks(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(marksService.getAllMarks());
+            }
+            return ResponseEntity.ok(marksService.getMarksPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching marks: " + e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
@@ -35,7 +53,7 @@ public class MarksController {
     }
 
     @GetMapping("/student/{studentId}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @studentService.getStudentById(#studentId).get().userId == authentication.principal.userId")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @ownership.isStudent(#studentId)")
     public ResponseEntity<List<Marks>> getMarksByStudent(@PathVariable Long studentId) {
         List<Marks> marks = marksService.getMarksByStudent(studentId);
         return ResponseEntity.ok(marks);
@@ -48,6 +66,28 @@ public class MarksController {
         return ResponseEntity.ok(marks);
     }
 
+    @GetMapping("/exam/{examId}/statistics")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
+    public ResponseEntity<?> getExamStatistics(@PathVariable Long examId) {
+        try {
+            return ResponseEntity.ok(marksStatisticsService.getExamStatistics(examId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching exam statistics: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/subject/{subjectId}/statistics")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
+    public ResponseEntity<?> getSubjectStatistics(@PathVariable Long subjectId) {
+        try {
+            return ResponseEntity.ok(marksStatisticsService.getSubjectStatistics(subjectId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching subject statistics: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/subject/{subjectId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
     public ResponseEntity<List<Marks>> getMarksBySubject(@PathVariable Long subjectId) {
@@ -56,7 +96,7 @@ public class MarksController {
     }
 
     @GetMapping("/student/{studentId}/subject/{subjectId}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @studentService.getStudentById(#studentId).get().userId == authentication.principal.userId")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @ownership.isStudent(#studentId)")
     public ResponseEntity<List<Marks>> getMarksByStudentAndSubject(
             @PathVariable Long studentId, @PathVariable Long subjectId) {
         List<Marks> marks = marksService.getMarksByStudentAndSubject(studentId, subjectId);
@@ -70,6 +110,20 @@ public class MarksController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdMarks);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
+    public ResponseEntity<?> importMarks(@RequestParam Long examId,
+                                         @RequestParam(required = false) BigDecimal totalMarks,
+                                         @RequestParam("file") MultipartFile file) {
+        try (InputStream csv = file.getInputStream()) {
+            MarksImportReport report = marksImportService.importMarks(examId, totalMarks, csv);
+            return ResponseEntity.ok(report);
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error importing marks: " + e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or hasRole('FACULTY')")
     public ResponseEntity<Marks> updateMarks(@PathVariable Long id, @Valid @RequestBody Marks marksDetails) {
@@ -93,7 +147,7 @@ public class MarksController {
     }
 
     @GetMapping("/student/{studentId}/average")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @studentService.getStudentById(#studentId).get().userId == authentication.principal.userId")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @ownership.isStudent(#studentId)")
     public ResponseEntity<Double> getAverageMarksByStudent(@PathVariable Long studentId) {
         Double average = marksService.getAverageMarksByStudent(studentId);
         return ResponseEntity.ok(average != null ? average : 0.0);
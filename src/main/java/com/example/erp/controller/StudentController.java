@@ -1,5 +1,6 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Student;
 import com.example.erp.service.StudentService;
 import jakarta.validation.Valid;
@@ -20,14 +21,21 @@ public class StudentController {
     private final StudentService studentService;
 
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY')")
-    public ResponseEntity<List<Student>> getAllStudents() {
-        List<Student> students = studentService.getAllStudents();
-        return ResponseEntity.ok(students);
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('FACULTY')) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAllStudents(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(studentService.getAllStudents());
+            }
+            return ResponseEntity.ok(studentService.getStudentsPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching students: " + e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @studentService.getStudentById(#id).get().userId == authentication.principal.userId")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @ownership.isStudent(#id)")
     public ResponseEntity<Student> getStudentById(@PathVariable Long id) {
         return studentService.getStudentById(id)
                 .map(student -> ResponseEntity.ok(student))
@@ -43,7 +51,7 @@ public class StudentController {
     }
 
     @GetMapping("/user/{userId}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or #userId == authentication.principal.userId")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @ownership.isUser(#userId)")
     public ResponseEntity<Student> getStudentByUserId(@PathVariable Long userId) {
         return studentService.getStudentByUserId(userId)
                 .map(student -> ResponseEntity.ok(student))
@@ -91,7 +99,7 @@ public class StudentController {
     }
 
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @studentService.getStudentById(#id).get().userId == authentication.principal.userId")
+    @PreAuthorize("hasRole('ADMIN') or @ownership.isStudent(#id)")
     public ResponseEntity<Student> updateStudent(@PathVariable Long id, @Valid @RequestBody Student studentDetails) {
         try {
             Student updatedStudent = studentService.updateStudent(id, studentDetails);
@@ -1,5 +1,6 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Subject;
 import com.example.erp.service.SubjectService;
 import jakarta.validation.Valid;
@@ -20,10 +21,17 @@ public class SubjectController {
     private final SubjectService subjectService;
 
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or hasRole('STUDENT')")
-    public ResponseEntity<List<Subject>> getAllSubjects() {
-        List<Subject> subjects = subjectService.getAllSubjects();
-        return ResponseEntity.ok(subjects);
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('FACULTY') or hasRole('STUDENT')) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAllSubjects(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(subjectService.getAllSubjects());
+            }
+            return ResponseEntity.ok(subjectService.getSubjectsPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching subjects: " + e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
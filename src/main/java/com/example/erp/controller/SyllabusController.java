@@ -1,12 +1,15 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Syllabus;
 import com.example.erp.service.SyllabusService;
+import com.example.erp.service.ResourceVersionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import java.util.List;
@@ -18,30 +21,48 @@ import java.util.List;
 public class SyllabusController {
     
     private final SyllabusService syllabusService;
+    private final ResourceVersionService resourceVersionService;
     
     @GetMapping
-    public ResponseEntity<List<Syllabus>> getAllSyllabus() {
-        List<Syllabus> syllabus = syllabusService.getAllSyllabus();
-        return ResponseEntity.ok(syllabus);
+    @PreAuthorize("!#page.unpaged or hasRole('ADMIN')")
+    public ResponseEntity<?> getAllSyllabus(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(syllabusService.getAllSyllabus());
+            }
+            return ResponseEntity.ok(syllabusService.getSyllabusPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching syllabus: " + e.getMessage());
+        }
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Syllabus> getSyllabusById(@PathVariable Long id) {
+    public ResponseEntity<Syllabus> getSyllabusById(@PathVariable Long id, WebRequest request) {
+        if (resourceVersionService.syllabus(id).isNotModified(request)) {
+            return null;
+        }
         return syllabusService.getSyllabusById(id)
-            .map(syllabus -> ResponseEntity.ok(syllabus))
+            .map(syllabus -> ResponseEntity.ok().cacheControl(ResourceVersionService.REVALIDATE).body(syllabus))
             .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/subject/{subjectId}")
-    public ResponseEntity<List<Syllabus>> getSyllabusBySubject(@PathVariable Long subjectId) {
+    public ResponseEntity<List<Syllabus>> getSyllabusBySubject(@PathVariable Long subjectId, WebRequest request) {
+        if (resourceVersionService.syllabusBySubject(subjectId).isNotModified(request)) {
+            return null;
+        }
         List<Syllabus> syllabus = syllabusService.getSyllabusBySubject(subjectId);
-        return ResponseEntity.ok(syllabus);
+        return ResponseEntity.ok().cacheControl(ResourceVersionService.REVALIDATE).body(syllabus);
     }
     
     @GetMapping("/department/{departmentId}")
-    public ResponseEntity<List<Syllabus>> getSyllabusByDepartment(@PathVariable Long departmentId) {
+    public ResponseEntity<List<Syllabus>> getSyllabusByDepartment(@PathVariable Long departmentId, WebRequest request) {
+        if (resourceVersionService.syllabusByDepartment(departmentId).isNotModified(request)) {
+            return null;
+        }
         List<Syllabus> syllabus = syllabusService.getSyllabusByDepartment(departmentId);
-        return ResponseEntity.ok(syllabus);
+        return ResponseEntity.ok().cacheControl(ResourceVersionService.REVALIDATE).body(syllabus);
     }
     
     @PostMapping
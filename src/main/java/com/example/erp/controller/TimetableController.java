@@ -1,12 +1,15 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Timetable;
 import com.example.erp.service.TimetableService;
+import com.example.erp.service.ResourceVersionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import java.util.List;
@@ -18,36 +21,57 @@ import java.util.List;
 public class TimetableController {
     
     private final TimetableService timetableService;
+    private final ResourceVersionService resourceVersionService;
     
     @GetMapping
-    public ResponseEntity<List<Timetable>> getAllTimetables() {
-        List<Timetable> timetables = timetableService.getAllTimetables();
-        return ResponseEntity.ok(timetables);
+    @PreAuthorize("!#page.unpaged or hasRole('ADMIN')")
+    public ResponseEntity<?> getAllTimetables(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(timetableService.getAllTimetables());
+            }
+            return ResponseEntity.ok(timetableService.getTimetablesPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching timetables: " + e.getMessage());
+        }
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Timetable> getTimetableById(@PathVariable Long id) {
+    public ResponseEntity<Timetable> getTimetableById(@PathVariable Long id, WebRequest request) {
+        if (resourceVersionService.timetable(id).isNotModified(request)) {
+            return null;
+        }
         return timetableService.getTimetableById(id)
-            .map(timetable -> ResponseEntity.ok(timetable))
+            .map(timetable -> ResponseEntity.ok().cacheControl(ResourceVersionService.REVALIDATE).body(timetable))
             .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/department/{departmentId}")
-    public ResponseEntity<List<Timetable>> getTimetableByDepartment(@PathVariable Long departmentId) {
+    public ResponseEntity<List<Timetable>> getTimetableByDepartment(@PathVariable Long departmentId, WebRequest request) {
+        if (resourceVersionService.timetableByDepartment(departmentId).isNotModified(request)) {
+            return null;
+        }
         List<Timetable> timetables = timetableService.getTimetableByDepartment(departmentId);
-        return ResponseEntity.ok(timetables);
+        return ResponseEntity.ok().cacheControl(ResourceVersionService.REVALIDATE).body(timetables);
     }
     
     @GetMapping("/subject/{subjectId}")
-    public ResponseEntity<List<Timetable>> getTimetableBySubject(@PathVariable Long subjectId) {
+    public ResponseEntity<List<Timetable>> getTimetableBySubject(@PathVariable Long subjectId, WebRequest request) {
+        if (resourceVersionService.timetableBySubject(subjectId).isNotModified(request)) {
+            return null;
+        }
         List<Timetable> timetables = timetableService.getTimetableBySubject(subjectId);
-        return ResponseEntity.ok(timetables);
+        return ResponseEntity.ok().cacheControl(ResourceVersionService.REVALIDATE).body(timetables);
     }
     
     @GetMapping("/faculty/{facultyId}")
-    public ResponseEntity<List<Timetable>> getTimetableByFaculty(@PathVariable Long facultyId) {
+    public ResponseEntity<List<Timetable>> getTimetableByFaculty(@PathVariable Long facultyId, WebRequest request) {
+        if (resourceVersionService.timetableByFaculty(facultyId).isNotModified(request)) {
+            return null;
+        }
         List<Timetable> timetables = timetableService.getTimetableByFaculty(facultyId);
-        return ResponseEntity.ok(timetables);
+        return ResponseEntity.ok().cacheControl(ResourceVersionService.REVALIDATE).body(timetables);
     }
     
     @PostMapping
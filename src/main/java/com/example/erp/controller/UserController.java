@@ -1,6 +1,8 @@
 package com.example.erp.controller;
 
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.User;
+import com.example.erp.service.ResourceVersionService;
 import com.example.erp.service.UserService;
 import jakarta.persistence.EntityNotFoundException;
 
@@ -16,6 +18,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -28,19 +31,30 @@ import java.util.Optional;
 public class UserController {
 
     private final UserService userService;
+    private final ResourceVersionService resourceVersionService;
 
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY')")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    @PreAuthorize("(hasRole('ADMIN') or hasRole('FACULTY')) and (!#page.unpaged or hasRole('ADMIN'))")
+    public ResponseEntity<?> getAllUsers(PageQuery page) {
+        try {
+            if (page.isUnpaged()) {
+                return ResponseEntity.ok(userService.getAllUsers());
+            }
+            return ResponseEntity.ok(userService.getUsersPage(page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body("Error fetching users: " + e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @userService.getUserById(#id).get().userId == authentication.principal.userId")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FACULTY') or @ownership.isUser(#id)")
+    public ResponseEntity<User> getUserById(@PathVariable Long id, WebRequest request) {
+        if (resourceVersionService.user(id).isNotModified(request)) {
+            return null;
+        }
         return userService.getUserById(id)
-                .map(user -> ResponseEntity.ok(user))
+                .map(user -> ResponseEntity.ok().cacheControl(ResourceVersionService.REVALIDATE).body(user))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -211,7 +225,7 @@ public class UserController {
     }
 
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or @userService.getUserById(#id).get().email == authentication.name")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRINCIPAL') or @ownership.isUser(#id)")
     public ResponseEntity<?> updateUser(@PathVariable Long id, @Valid @RequestBody User userDetails) {
         try {
             // Get current user
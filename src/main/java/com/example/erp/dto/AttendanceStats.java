@@ -0,0 +1,31 @@
+package com.example.erp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Attendance counts for one student in one subject, with the weighted percentage
+ * filled in by the service.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceStats {
+    private Long studentId;
+    private Long subjectId;
+    private long total;
+    private long present;
+    private long late;
+    private long absent;
+    private double percentage;
+
+    public AttendanceStats(Long studentId, Long subjectId, Long total, Long present, Long late, Long absent) {
+        this.studentId = studentId;
+        this.subjectId = subjectId;
+        this.total = total != null ? total : 0L;
+        this.present = present != null ? present : 0L;
+        this.late = late != null ? late : 0L;
+        this.absent = absent != null ? absent : 0L;
+    }
+}
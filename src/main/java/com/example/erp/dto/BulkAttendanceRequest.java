@@ -0,0 +1,42 @@
+package com.example.erp.dto;
+
+import com.example.erp.entity.Attendance;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Roll call for one subject on one date, marked in a single request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAttendanceRequest {
+
+    @NotNull(message = "Subject ID is required")
+    private Long subjectId;
+
+    @NotNull(message = "Date is required")
+    private LocalDate date;
+
+    @Valid
+    @NotEmpty(message = "At least one attendance entry is required")
+    private List<Entry> entries;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+
+        @NotNull(message = "Student ID is required")
+        private Long studentId;
+
+        private Attendance.AttendanceStatus status = Attendance.AttendanceStatus.PRESENT;
+    }
+}
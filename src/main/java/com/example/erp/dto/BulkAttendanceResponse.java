@@ -0,0 +1,18 @@
+package com.example.erp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAttendanceResponse {
+    private Long subjectId;
+    private LocalDate date;
+    private int markedCount;
+    private List<Long> attendanceIds;
+}
@@ -0,0 +1,26 @@
+package com.example.erp.dto;
+
+import com.example.erp.entity.GradeCalculation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Outcome of approving or publishing a department's semester: how many grades moved to
+ * {@code status}, how many grades of the semester are in each status afterwards, and how many
+ * result snapshots were written.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusChange {
+    private Long departmentId;
+    private String academicYear;
+    private Integer semester;
+    private GradeCalculation.GradeStatus status;
+    private int updated;
+    private Map<GradeCalculation.GradeStatus, Long> statusCounts;
+    private int snapshots;
+}
@@ -0,0 +1,32 @@
+package com.example.erp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a CSV marks import. Valid rows are imported and every rejected line is listed
+ * with its reason, up to {@code app.marks.import.max-errors}; {@code rejected} counts them all.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarksImportReport {
+    private Long examId;
+    private int rowsRead;
+    private int imported;
+    private int rejected;
+    private boolean errorsTruncated;
+    private List<RowError> errors;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private int line;
+        private Long studentId;
+        private String message;
+    }
+}
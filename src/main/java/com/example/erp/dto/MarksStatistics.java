@@ -0,0 +1,44 @@
+package com.example.erp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Distribution of the marks of one exam, or of every exam of one subject. All values are
+ * percentages of the total marks of each entry; they are null when there are no marks.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarksStatistics {
+    private Long examId;
+    private Long subjectId;
+    private long count;
+    private BigDecimal mean;
+    private BigDecimal median;
+    private BigDecimal standardDeviation;
+    private BigDecimal min;
+    private BigDecimal max;
+    private BigDecimal p10;
+    private BigDecimal p25;
+    private BigDecimal p75;
+    private BigDecimal p90;
+    private List<HistogramBucket> histogram;
+    
+    /**
+     * Entries from {@code fromPercent} (inclusive) to {@code toPercent} (exclusive, except for
+     * the last bucket, which includes 100).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HistogramBucket {
+        private BigDecimal fromPercent;
+        private BigDecimal toPercent;
+        private long count;
+    }
+}
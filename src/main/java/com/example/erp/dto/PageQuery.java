@@ -0,0 +1,29 @@
+package com.example.erp.dto;
+
+import lombok.Data;
+
+/**
+ * Query parameters shared by all list endpoints: {@code cursor}, {@code size}, {@code sort}
+ * ({@code asc} or {@code desc}) and {@code unpaged}, which returns the whole table and is
+ * reserved for admin exports.
+ */
+@Data
+public class PageQuery {
+    private String cursor;
+    private Integer size;
+    private String sort;
+    private boolean unpaged;
+    
+    public boolean isDescending(boolean defaultDescending) {
+        if (sort == null || sort.isBlank()) {
+            return defaultDescending;
+        }
+        if ("desc".equalsIgnoreCase(sort)) {
+            return true;
+        }
+        if ("asc".equalsIgnoreCase(sort)) {
+            return false;
+        }
+        throw new RuntimeException("Invalid sort: " + sort + " (expected asc or desc)");
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.erp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One student's row in a cohort rank list for a semester. Both ranks are competition ranks
+ * ({@code 1, 2, 2, 4}) over the cohort, whichever of them the list is ordered by.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StandingEntry {
+    private Long studentId;
+    private String prnNumber;
+    private String studentName;
+    private String batch;
+    private Long departmentId;
+    private BigDecimal sgpa;
+    private long semesterCredits;
+    private BigDecimal cgpa;
+    private long totalCredits;
+    private long sgpaRank;
+    private long cgpaRank;
+    private long cohortSize;
+}
@@ -0,0 +1,21 @@
+package com.example.erp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A student's SGPA and CGPA for every semester with published grades, oldest first, and their
+ * place in their batch and department in the latest of those semesters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentStanding {
+    private Long studentId;
+    private List<TermStanding> terms;
+    private StandingEntry batchStanding;
+    private StandingEntry departmentStanding;
+}
@@ -0,0 +1,22 @@
+package com.example.erp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * A student's SGPA for one semester and CGPA over every semester up to and including it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TermStanding {
+    private String academicYear;
+    private Integer semester;
+    private BigDecimal sgpa;
+    private long semesterCredits;
+    private BigDecimal cgpa;
+    private long totalCredits;
+}
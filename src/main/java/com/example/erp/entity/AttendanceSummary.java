@@ -0,0 +1,44 @@
+package com.example.erp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "attendance_summary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceSummary {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+    
+    @Column(name = "subject_id", nullable = false)
+    private Long subjectId;
+    
+    @Column(name = "academic_year", nullable = false, length = 10)
+    private String academicYear;
+    
+    @Column(name = "present_count", nullable = false)
+    private Integer presentCount = 0;
+    
+    @Column(name = "late_count", nullable = false)
+    private Integer lateCount = 0;
+    
+    @Column(name = "absent_count", nullable = false)
+    private Integer absentCount = 0;
+    
+    @Column(name = "total_count", nullable = false)
+    private Integer totalCount = 0;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
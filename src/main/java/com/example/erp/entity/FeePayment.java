@@ -0,0 +1,44 @@
+package com.example.erp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A payment towards a fee, with the fee's paid amount and status right after it. Payments made
+ * with an idempotency key are looked up by it when the client retries.
+ */
+@Entity
+@Table(name = "fee_payment")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeePayment {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "fee_id", nullable = false)
+    private Long feeId;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+    
+    @Column(name = "idempotency_key", unique = true)
+    private String idempotencyKey;
+    
+    @Column(name = "paid_amount_after", precision = 10, scale = 2)
+    private BigDecimal paidAmountAfter;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status_after", length = 20)
+    private Fees.PaymentStatus paymentStatusAfter;
+    
+    @Column(name = "paid_at", nullable = false)
+    private LocalDateTime paidAt;
+}
@@ -35,6 +35,10 @@ public class Fees {
     @Column(name = "payment_status", nullable = false, length = 20)
     private PaymentStatus paymentStatus = PaymentStatus.PENDING;
     
+    @Version
+    @Column(nullable = false)
+    private Long version = 0L;
+    
     // Relationships
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id", insertable = false, updatable = false)
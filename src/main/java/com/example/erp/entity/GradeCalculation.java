@@ -51,7 +51,7 @@ public class GradeCalculation {
     @Column(name = "grade", length = 5)
     private String grade;
     
-    @Column(name = "grade_points", precision = 3, scale = 2)
+    @Column(name = "grade_points", precision = 4, scale = 2)
     private BigDecimal gradePoints;
     
     @Column(name = "credits")
@@ -0,0 +1,65 @@
+package com.example.erp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "grade_run")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeRun {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "subject_id", nullable = false)
+    private Long subjectId;
+    
+    @Column(name = "academic_year", nullable = false, length = 10)
+    private String academicYear;
+    
+    @Column(name = "semester", nullable = false)
+    private Integer semester;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private RunStatus status = RunStatus.RUNNING;
+    
+    @Column(name = "total_students", nullable = false)
+    private Integer totalStudents = 0;
+    
+    @Column(name = "processed_students", nullable = false)
+    private Integer processedStudents = 0;
+    
+    // Students whose grade was already approved or published and was left untouched
+    @Column(name = "skipped_students", nullable = false)
+    private Integer skippedStudents = 0;
+    
+    @Column(name = "last_student_id", nullable = false)
+    private Long lastStudentId = 0L;
+    
+    @Column(name = "started_by")
+    private Long startedBy;
+    
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+    
+    @Column(name = "error", columnDefinition = "TEXT")
+    private String error;
+    
+    public enum RunStatus {
+        RUNNING, COMPLETED, FAILED
+    }
+}
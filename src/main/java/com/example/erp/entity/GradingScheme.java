@@ -0,0 +1,58 @@
+package com.example.erp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "grading_scheme")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradingScheme {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+    
+    // NULL for the institution-wide scheme
+    @Column(name = "department_id")
+    private Long departmentId;
+    
+    // First academic year this regulation applies to, e.g. 2024-25
+    @Column(name = "effective_from", nullable = false, length = 10)
+    private String effectiveFrom;
+    
+    @Column(name = "internal_weight", nullable = false, precision = 7, scale = 4)
+    private BigDecimal internalWeight;
+    
+    @Column(name = "external_weight", nullable = false, precision = 7, scale = 4)
+    private BigDecimal externalWeight;
+    
+    @Column(name = "assignment_weight", nullable = false, precision = 7, scale = 4)
+    private BigDecimal assignmentWeight;
+    
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @JoinColumn(name = "scheme_id", nullable = false)
+    @OrderBy("minMarks DESC")
+    private List<GradingSchemeBand> bands = new ArrayList<>();
+    
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,29 @@
+package com.example.erp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "grading_scheme_band")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradingSchemeBand {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "min_marks", nullable = false, precision = 5, scale = 2)
+    private BigDecimal minMarks;
+    
+    @Column(name = "grade", nullable = false, length = 5)
+    private String grade;
+    
+    @Column(name = "grade_points", nullable = false, precision = 4, scale = 2)
+    private BigDecimal gradePoints;
+}
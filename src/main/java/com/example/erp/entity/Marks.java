@@ -1,5 +1,6 @@
 package com.example.erp.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -30,11 +31,13 @@ public class Marks {
     @Column(name = "total_marks", precision = 5, scale = 2)
     private BigDecimal totalMarks;
     
-    // Relationships
+    // Relationships; not serialized, so marks can be shared between requests (see SingleFlight)
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id", insertable = false, updatable = false)
     private Student student;
     
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "exam_id", insertable = false, updatable = false)
     private Exam exam;
@@ -0,0 +1,36 @@
+package com.example.erp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A student's published results as served to the student, rendered to JSON when grades are
+ * published. There is one per student, replaced each time the student's published grades change.
+ */
+@Entity
+@Table(name = "result_snapshot")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "student_id", nullable = false, unique = true)
+    private Long studentId;
+    
+    @Column(name = "content", nullable = false, columnDefinition = "TEXT")
+    private String content;
+    
+    @Column(name = "grade_count", nullable = false)
+    private Integer gradeCount;
+    
+    @Column(name = "generated_at", nullable = false)
+    private LocalDateTime generatedAt;
+}
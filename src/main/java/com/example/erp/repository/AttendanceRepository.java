@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -30,4 +31,9 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
     
     @Query("SELECT COUNT(a) FROM Attendance a WHERE a.studentId = :studentId AND a.subjectId = :subjectId AND a.status = :status")
     long countPresentByStudentAndSubject(@Param("studentId") Long studentId, @Param("subjectId") Long subjectId, @Param("status") Attendance.AttendanceStatus status);
+    
+    @Query("SELECT a.studentId FROM Attendance a WHERE a.subjectId = :subjectId AND a.date = :date AND a.studentId IN :studentIds")
+    List<Long> findMarkedStudentIds(@Param("subjectId") Long subjectId,
+                                    @Param("date") LocalDate date,
+                                    @Param("studentIds") Collection<Long> studentIds);
 }
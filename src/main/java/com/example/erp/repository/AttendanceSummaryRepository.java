@@ -0,0 +1,27 @@
+package com.example.erp.repository;
+
+import com.example.erp.dto.AttendanceStats;
+import com.example.erp.entity.AttendanceSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AttendanceSummaryRepository extends JpaRepository<AttendanceSummary, Long> {
+    
+    String STATS_SELECT = "SELECT new com.example.erp.dto.AttendanceStats(s.studentId, s.subjectId, "
+        + "SUM(s.totalCount), SUM(s.presentCount), SUM(s.lateCount), SUM(s.absentCount)) FROM AttendanceSummary s ";
+    
+    @Query(STATS_SELECT + "WHERE s.studentId = :studentId AND s.subjectId = :subjectId GROUP BY s.studentId, s.subjectId")
+    Optional<AttendanceStats> findStatsByStudentAndSubject(@Param("studentId") Long studentId, @Param("subjectId") Long subjectId);
+    
+    @Query(STATS_SELECT + "WHERE s.studentId = :studentId GROUP BY s.studentId, s.subjectId ORDER BY s.subjectId")
+    List<AttendanceStats> findStatsByStudent(@Param("studentId") Long studentId);
+    
+    @Query(STATS_SELECT + "WHERE s.subjectId = :subjectId GROUP BY s.studentId, s.subjectId ORDER BY s.studentId")
+    List<AttendanceStats> findStatsBySubject(@Param("subjectId") Long subjectId);
+}
@@ -0,0 +1,13 @@
+package com.example.erp.repository;
+
+import com.example.erp.entity.FeePayment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FeePaymentRepository extends JpaRepository<FeePayment, Long> {
+    
+    Optional<FeePayment> findByIdempotencyKey(String idempotencyKey);
+}
@@ -2,6 +2,7 @@ package com.example.erp.repository;
 
 import com.example.erp.entity.Fees;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,6 +24,21 @@ public interface FeesRepository extends JpaRepository<Fees, Long> {
     List<Fees> findByStudentIdAndPaymentStatus(@Param("studentId") Long studentId, 
                                                @Param("status") Fees.PaymentStatus status);
     
+    /**
+     * Adds a payment in one statement, provided it does not take the paid amount beyond the fee;
+     * returns 0 otherwise. Concurrent payments on the same fee serialize only for the length of
+     * this update and never overwrite each other.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Fees f SET f.paidAmount = COALESCE(f.paidAmount, 0) + :amount, "
+        + "f.paymentStatus = CASE WHEN COALESCE(f.paidAmount, 0) + :amount >= f.amount THEN :paid ELSE :partial END, "
+        + "f.version = f.version + 1 "
+        + "WHERE f.id = :id AND COALESCE(f.paidAmount, 0) + :amount <= f.amount")
+    int applyPayment(@Param("id") Long id,
+                     @Param("amount") BigDecimal amount,
+                     @Param("paid") Fees.PaymentStatus paid,
+                     @Param("partial") Fees.PaymentStatus partial);
+    
     @Query("SELECT SUM(f.amount - f.paidAmount) FROM Fees f WHERE f.studentId = :studentId AND f.paymentStatus != :paidStatus")
     BigDecimal findTotalPendingAmountByStudentId(@Param("studentId") Long studentId, @Param("paidStatus") Fees.PaymentStatus paidStatus);
 }
@@ -2,10 +2,12 @@ package com.example.erp.repository;
 
 import com.example.erp.entity.GradeCalculation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,9 +32,46 @@ public interface GradeCalculationRepository extends JpaRepository<GradeCalculati
         @Param("academicYear") String academicYear
     );
     
-    @Query("SELECT AVG(gc.gradePoints) FROM GradeCalculation gc WHERE gc.studentId = :studentId AND gc.academicYear = :academicYear AND gc.status = :status")
-    Double calculateGPA(@Param("studentId") Long studentId, @Param("academicYear") String academicYear, @Param("status") GradeCalculation.GradeStatus status);
+    @Query("SELECT SUM(gc.gradePoints * gc.credits) / SUM(gc.credits) FROM GradeCalculation gc WHERE gc.studentId = :studentId AND gc.academicYear = :academicYear AND gc.status = :status AND gc.credits > 0")
+    BigDecimal calculateGPA(@Param("studentId") Long studentId, @Param("academicYear") String academicYear, @Param("status") GradeCalculation.GradeStatus status);
     
     @Query("SELECT gc FROM GradeCalculation gc WHERE gc.academicYear = :academicYear AND gc.semester = :semester")
     List<GradeCalculation> findByAcademicYearAndSemester(@Param("academicYear") String academicYear, @Param("semester") Integer semester);
+    
+    /** Moves one grade to the next status if it is still in {@code from}; returns 0 otherwise */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE GradeCalculation gc SET gc.status = :to WHERE gc.id = :id AND gc.status = :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") GradeCalculation.GradeStatus from,
+                   @Param("to") GradeCalculation.GradeStatus to);
+    
+    /**
+     * Moves a department's grades for a semester from one status to the next in one statement;
+     * rows in any other status are left alone.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE GradeCalculation gc SET gc.status = :to WHERE gc.status = :from "
+        + "AND gc.academicYear = :academicYear AND gc.semester = :semester "
+        + "AND gc.subjectId IN (SELECT s.id FROM Subject s WHERE s.departmentId = :departmentId)")
+    int transitionDepartmentSemester(@Param("departmentId") Long departmentId,
+                                     @Param("academicYear") String academicYear,
+                                     @Param("semester") Integer semester,
+                                     @Param("from") GradeCalculation.GradeStatus from,
+                                     @Param("to") GradeCalculation.GradeStatus to);
+    
+    @Query("SELECT gc.status, COUNT(gc) FROM GradeCalculation gc "
+        + "WHERE gc.academicYear = :academicYear AND gc.semester = :semester "
+        + "AND gc.subjectId IN (SELECT s.id FROM Subject s WHERE s.departmentId = :departmentId) "
+        + "GROUP BY gc.status")
+    List<Object[]> countByStatusForDepartmentSemester(@Param("departmentId") Long departmentId,
+                                                      @Param("academicYear") String academicYear,
+                                                      @Param("semester") Integer semester);
+    
+    @Query("SELECT DISTINCT gc.studentId FROM GradeCalculation gc WHERE gc.status = :status "
+        + "AND gc.academicYear = :academicYear AND gc.semester = :semester "
+        + "AND gc.subjectId IN (SELECT s.id FROM Subject s WHERE s.departmentId = :departmentId)")
+    List<Long> findStudentIdsForDepartmentSemester(@Param("departmentId") Long departmentId,
+                                                   @Param("academicYear") String academicYear,
+                                                   @Param("semester") Integer semester,
+                                                   @Param("status") GradeCalculation.GradeStatus status);
 }
@@ -0,0 +1,16 @@
+package com.example.erp.repository;
+
+import com.example.erp.entity.GradeRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GradeRunRepository extends JpaRepository<GradeRun, Long> {
+    
+    Optional<GradeRun> findBySubjectIdAndAcademicYearAndSemester(Long subjectId, String academicYear, Integer semester);
+    
+    List<GradeRun> findBySubjectIdOrderByStartedAtDesc(Long subjectId);
+}
@@ -0,0 +1,19 @@
+package com.example.erp.repository;
+
+import com.example.erp.entity.GradingScheme;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface GradingSchemeRepository extends JpaRepository<GradingScheme, Long> {
+    
+    List<GradingScheme> findByDepartmentIdOrderByEffectiveFromDesc(Long departmentId);
+    
+    // Locks the institution-wide schemes so two deletes cannot each leave the other as the last one
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<GradingScheme> findByDepartmentIdIsNull();
+}
@@ -0,0 +1,203 @@
+package com.example.erp.repository;
+
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset (seek) pagination for any entity with a Long primary key. Each page is fetched with
+ * {@code WHERE key > :last ORDER BY key LIMIT size + 1}, so the cost of a page does not depend
+ * on how deep into the table it is. The cursor is the last key of the previous page together
+ * with the sort direction, base64url encoded.
+ */
+@Repository
+public class KeysetPaginator {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${app.pagination.default-size:50}")
+    private int defaultSize;
+    
+    @Value("${app.pagination.max-size:500}")
+    private int maxSize;
+    
+    /**
+     * Pages by primary key. Ascending unless the query asks for {@code desc}.
+     */
+    public <T> CursorPage<T> findPage(Class<T> type, PageQuery query) {
+        return findPage(type, query, null);
+    }
+    
+    /**
+     * Pages by primary key over the rows matching {@code filter}, e.g. one subject's attendance.
+     * The filter columns should lead an index ending in the primary key.
+     */
+    public <T> CursorPage<T> findPage(Class<T> type, PageQuery query, Specification<T> filter) {
+        int size = pageSize(query);
+        Cursor cursor = Cursor.decode(query.getCursor());
+        boolean descending = cursor != null ? cursor.descending : query.isDescending(false);
+        
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> cq = cb.createQuery(type);
+        Root<T> root = cq.from(type);
+        Path<Long> id = root.get(idAttribute(type));
+        List<Predicate> where = new ArrayList<>();
+        if (filter != null) {
+            where.add(filter.toPredicate(root, cq, cb));
+        }
+        if (cursor != null) {
+            where.add(descending ? cb.lessThan(id, cursor.id) : cb.greaterThan(id, cursor.id));
+        }
+        cq.where(where.toArray(new Predicate[0]));
+        cq.orderBy(descending ? cb.desc(id) : cb.asc(id));
+        
+        List<T> rows = entityManager.createQuery(cq).setMaxResults(size + 1).getResultList();
+        return toPage(rows, size, last -> new Cursor(descending, idOf(last), null));
+    }
+    
+    /**
+     * Pages by a timestamp column with the primary key as tie-breaker, matching an index on
+     * {@code (timestamp, id)}. Rows with a null timestamp are not returned.
+     */
+    public <T> CursorPage<T> findPageByTimestamp(Class<T> type, String timestampAttribute,
+                                                 Function<T, LocalDateTime> timestampOf,
+                                                 PageQuery query, boolean defaultDescending) {
+        return findPageByTimestamp(type, timestampAttribute, timestampOf, query, defaultDescending, null);
+    }
+    
+    /**
+     * Pages by timestamp over the rows matching {@code filter}, e.g. one user's log entries,
+     * matching an index on {@code (filter columns, timestamp)}.
+     */
+    public <T> CursorPage<T> findPageByTimestamp(Class<T> type, String timestampAttribute,
+                                                 Function<T, LocalDateTime> timestampOf,
+                                                 PageQuery query, boolean defaultDescending,
+                                                 Specification<T> filter) {
+        int size = pageSize(query);
+        Cursor cursor = Cursor.decode(query.getCursor());
+        boolean descending = cursor != null ? cursor.descending : query.isDescending(defaultDescending);
+        
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> cq = cb.createQuery(type);
+        Root<T> root = cq.from(type);
+        Path<Long> id = root.get(idAttribute(type));
+        Path<LocalDateTime> timestamp = root.get(timestampAttribute);
+        List<Predicate> where = new ArrayList<>();
+        if (filter != null) {
+            where.add(filter.toPredicate(root, cq, cb));
+        }
+        if (cursor != null) {
+            if (cursor.timestamp == null) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            where.add(descending
+                ? cb.or(cb.lessThan(timestamp, cursor.timestamp),
+                        cb.and(cb.equal(timestamp, cursor.timestamp), cb.lessThan(id, cursor.id)))
+                : cb.or(cb.greaterThan(timestamp, cursor.timestamp),
+                        cb.and(cb.equal(timestamp, cursor.timestamp), cb.greaterThan(id, cursor.id))));
+        } else {
+            where.add(cb.isNotNull(timestamp));
+        }
+        cq.where(where.toArray(new Predicate[0]));
+        cq.orderBy(descending
+            ? List.of(cb.desc(timestamp), cb.desc(id))
+            : List.of(cb.asc(timestamp), cb.asc(id)));
+        
+        List<T> rows = entityManager.createQuery(cq).setMaxResults(size + 1).getResultList();
+        return toPage(rows, size, last -> new Cursor(descending, idOf(last), timestampOf.apply(last)));
+    }
+    
+    /**
+     * Pages a list that is computed and cached as a whole, such as a rank list, keeping its
+     * order. The cursor is the key of the last item returned; it becomes invalid once that item
+     * is no longer in the list.
+     */
+    public <T> CursorPage<T> pageOf(List<T> rows, Function<T, Long> keyOf, PageQuery query) {
+        int size = pageSize(query);
+        Cursor cursor = Cursor.decode(query.getCursor());
+        int from = 0;
+        if (cursor != null) {
+            from = -1;
+            for (int i = 0; i < rows.size(); i++) {
+                if (cursor.id.equals(keyOf.apply(rows.get(i)))) {
+                    from = i + 1;
+                    break;
+                }
+            }
+            if (from < 0) {
+                throw new RuntimeException("Invalid cursor; the list has changed since it was issued");
+            }
+        }
+        List<T> window = rows.subList(from, Math.min(rows.size(), from + size + 1));
+        return toPage(window, size, last -> new Cursor(false, keyOf.apply(last), null));
+    }
+    
+    private <T> CursorPage<T> toPage(List<T> rows, int size, Function<T, Cursor> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, rows.size());
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, cursorOf.apply(items.get(size - 1)).encode(), size);
+    }
+    
+    private int pageSize(PageQuery query) {
+        Integer requested = query.getSize();
+        if (requested == null) {
+            return defaultSize;
+        }
+        if (requested < 1) {
+            throw new RuntimeException("Page size must be at least 1");
+        }
+        return Math.min(requested, maxSize);
+    }
+    
+    private String idAttribute(Class<?> type) {
+        return entityManager.getMetamodel().entity(type).getId(Long.class).getName();
+    }
+    
+    private Long idOf(Object entity) {
+        return (Long) entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+    }
+    
+    private record Cursor(boolean descending, Long id, LocalDateTime timestamp) {
+        
+        String encode() {
+            String raw = (descending ? "d" : "a") + "|" + id + (timestamp != null ? "|" + timestamp : "");
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static Cursor decode(String value) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                if (parts.length < 2 || parts.length > 3 || !(parts[0].equals("a") || parts[0].equals("d"))) {
+                    throw new IllegalArgumentException();
+                }
+                return new Cursor(parts[0].equals("d"), Long.parseLong(parts[1]),
+                    parts.length == 3 ? LocalDateTime.parse(parts[2]) : null);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.erp.repository;
+
+import com.example.erp.entity.ResultSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ResultSnapshotRepository extends JpaRepository<ResultSnapshot, Long> {
+    
+    Optional<ResultSnapshot> findByStudentId(Long studentId);
+}
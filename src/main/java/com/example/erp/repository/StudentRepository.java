@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +28,9 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     
     boolean existsByPrnNumber(String prnNumber);
     
+    @Query("SELECT s.id FROM Student s WHERE s.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
     @Query("SELECT COUNT(s) FROM Student s WHERE s.semester = :semester")
     long countBySemester(@Param("semester") Integer semester);
 }
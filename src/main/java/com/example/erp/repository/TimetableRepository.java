@@ -17,6 +17,10 @@ public interface TimetableRepository extends JpaRepository<Timetable, Long> {
     
     List<Timetable> findByDepartmentId(Long departmentId);
     
+    // Subject, faculty and department are embedded in responses; fetched here so the rows need no session afterwards
+    @Query("SELECT t FROM Timetable t JOIN FETCH t.subject JOIN FETCH t.faculty JOIN FETCH t.department WHERE t.departmentId = :departmentId")
+    List<Timetable> findWithRelationsByDepartmentId(@Param("departmentId") Long departmentId);
+    
     List<Timetable> findBySemester(Integer semester);
     
     List<Timetable> findByDayOfWeek(String dayOfWeek);
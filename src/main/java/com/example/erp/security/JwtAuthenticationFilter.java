@@ -2,7 +2,6 @@ package com.example.erp.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import jakarta.servlet.FilterChain;
@@ -10,6 +9,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -28,12 +28,34 @@ import java.util.List;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
+    /**
+     * Where the authenticated principal comes from after the token is verified.
+     */
+    public enum PrincipalSource {
+        /** Built from the token claims, no database access */
+        TOKEN,
+        /** Loaded from the database through {@link PrincipalCache} */
+        CACHE,
+        /** Loaded from the database on every request */
+        DATABASE
+    }
+    
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final PrincipalSource principalSource;
     
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
+                                   CustomUserDetailsService userDetailsService,
+                                   PrincipalCache principalCache,
+                                   TokenRevocationService tokenRevocationService,
+                                   @Value("${app.security.principal-source:TOKEN}") PrincipalSource principalSource) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.tokenRevocationService = tokenRevocationService;
+        this.principalSource = principalSource;
     }
     
     @Override
@@ -82,17 +104,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                 try {
 
-                    if (!tokenProvider.validateToken(jwt)) {
+                    Claims claims = tokenProvider.validateAndGetClaims(jwt);
+                    if (claims == null) {
                         log.warn("Invalid JWT token - validation failed");
                         response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired token");
                         return;
                     }
 
-                    Claims claims = Jwts.parserBuilder()
-                            .setSigningKey(tokenProvider.getSigningKey())
-                            .build()
-                            .parseClaimsJws(jwt)
-                            .getBody();
+                    if (tokenRevocationService.isRevoked(jwt, claims)) {
+                        log.warn("Revoked JWT token used for user ID: {}", claims.getSubject());
+                        response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token revoked");
+                        return;
+                    }
 
                     Long userId = Long.parseLong(claims.getSubject());
 
@@ -120,8 +143,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     log.debug("Converted roles to authorities: {}", authorities);
 
                     try {
-                        UserDetails userDetails = userDetailsService.loadUserById(userId);
-                        log.debug("Successfully loaded user details for ID: {}", userId);
+                        UserDetails userDetails = resolvePrincipal(userId, claims);
+                        log.debug("Resolved user details for ID: {} from {}", userId, principalSource);
                         
                         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                                 userDetails,   
@@ -164,6 +187,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
     }
 
+    private UserDetails resolvePrincipal(Long userId, Claims claims) {
+        if (principalSource == PrincipalSource.TOKEN) {
+            UserPrincipal principal = tokenProvider.getPrincipalFromClaims(claims);
+            if (principal != null) {
+                return principal;
+            }
+            // Token predates the email claim; fall back to a cached lookup
+        }
+        if (principalSource == PrincipalSource.DATABASE) {
+            return userDetailsService.loadUserById(userId);
+        }
+        return principalCache.get(userId, () -> (UserPrincipal) userDetailsService.loadUserById(userId));
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         log.debug("Authorization header: {}", bearerToken != null ? "[present]" : "[null]");
@@ -3,9 +3,11 @@ package com.example.erp.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
@@ -13,11 +15,20 @@ import javax.crypto.SecretKey;
 import jakarta.annotation.PostConstruct;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
 
 @Component
 @Slf4j
+@RequiredArgsConstructor
 public class JwtTokenProvider {
     
+    private final VerifiedTokenCache verifiedTokenCache;
+    
+    // Built once from the secret; both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+    
     @Value("${app.jwt.secret}")
     private String jwtSecret;
     
@@ -31,9 +42,15 @@ public class JwtTokenProvider {
         log.debug("  Secret key: {}... (truncated)", 
             jwtSecret != null ? jwtSecret.substring(0, Math.min(5, jwtSecret.length())) : "null");
         log.info("  Expiration: {} ms ({} hours)", jwtExpirationInMs, jwtExpirationInMs / (1000 * 60 * 60));
+        signingKey = buildSigningKey();
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
     
     SecretKey getSigningKey() {
+        return signingKey;
+    }
+    
+    private SecretKey buildSigningKey() {
         try {
             // Ensure the key is properly encoded
             byte[] keyBytes = jwtSecret.getBytes(java.nio.charset.StandardCharsets.UTF_8);
@@ -75,7 +92,12 @@ public class JwtTokenProvider {
             
             String token = Jwts.builder()
                     .setSubject(Long.toString(userPrincipal.getUserId()))
+                    .setId(UUID.randomUUID().toString())
                     .claim("roles", roleNames)
+                    .claim("email", userPrincipal.getEmail())
+                    .claim("departmentId", userPrincipal.getDepartmentId())
+                    .claim("studentId", userPrincipal.getStudentId())
+                    .claim("facultyId", userPrincipal.getFacultyId())
                     .setIssuedAt(now)
                     .setExpiration(expiryDate)
                     .signWith(getSigningKey())
@@ -92,41 +114,81 @@ public class JwtTokenProvider {
     }
     
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
+        Claims claims = verifiedTokenCache.get(token);
+        if (claims == null) {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        }
         return Long.parseLong(claims.getSubject());
     }
     
+    /**
+     * Builds the principal from the token alone, without a database lookup. Returns null for
+     * tokens issued before the email claim was added, which callers resolve from the database.
+     */
+    public UserPrincipal getPrincipalFromClaims(Claims claims) {
+        String email = claims.get("email", String.class);
+        if (email == null) {
+            return null;
+        }
+        Number departmentId = claims.get("departmentId", Number.class);
+        Number studentId = claims.get("studentId", Number.class);
+        Number facultyId = claims.get("facultyId", Number.class);
+        @SuppressWarnings("unchecked")
+        List<String> roles = claims.get("roles", List.class);
+        List<SimpleGrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .map(role -> {
+                    String roleName = role.toUpperCase(Locale.ROOT);
+                    return new SimpleGrantedAuthority(roleName.startsWith("ROLE_") ? roleName : "ROLE_" + roleName);
+                })
+                .toList();
+        return new UserPrincipal(
+                Long.parseLong(claims.getSubject()),
+                email,
+                null,
+                departmentId != null ? departmentId.longValue() : null,
+                studentId != null ? studentId.longValue() : null,
+                facultyId != null ? facultyId.longValue() : null,
+                authorities);
+    }
+    
     public boolean validateToken(String authToken) {
+        return validateAndGetClaims(authToken) != null;
+    }
+    
+    /**
+     * Verifies the token and returns its claims, or null if it is invalid or expired.
+     * Tokens verified before are answered from {@link VerifiedTokenCache} without
+     * checking the signature or parsing the payload again.
+     */
+    public Claims validateAndGetClaims(String authToken) {
+        if (!StringUtils.hasText(authToken)) {
+            log.warn("JWT token is null or empty");
+            return null;
+        }
+        
+        Claims cached = verifiedTokenCache.get(authToken);
+        if (cached != null) {
+            log.debug("JWT token found in verified token cache");
+            return cached;
+        }
+        
         try {
             log.info("Validating JWT token");
             
-            if (!StringUtils.hasText(authToken)) {
-                log.warn("JWT token is null or empty");
-                return false;
-            }
-            
             log.debug("Token length: {} characters", authToken.length());
             
             // Check if token is properly formatted (3 parts separated by .)
             String[] tokenParts = authToken.split("\\.");
             if (tokenParts.length != 3) {
                 log.warn("JWT token is malformed - expected 3 parts, got {}", tokenParts.length);
-                return false;
+                return null;
             }
             
             log.debug("Token has valid structure");
             
             // Parse the token with detailed error handling
             try {
-                Jws<Claims> claimsJws = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
+                Jws<Claims> claimsJws = jwtParser.parseClaimsJws(authToken);
                     
                 Claims claims = claimsJws.getBody();
                 
@@ -144,10 +206,11 @@ public class JwtTokenProvider {
                 if (claims.getExpiration().before(new Date())) {
                     log.warn("Token is expired: {}", claims.getExpiration());
                     log.warn("Current time: {}", new Date());
-                    return false;
+                    return null;
                 }
                 
-                return true;
+                verifiedTokenCache.put(authToken, claims);
+                return claims;
                 
             } catch (ExpiredJwtException ex) {
                 log.error("Token expired at: {}", ex.getClaims().getExpiration());
@@ -176,6 +239,6 @@ public class JwtTokenProvider {
         } catch (Exception ex) {
             log.error("Unexpected error validating JWT token - {}", ex.getMessage());
         }
-        return false;
+        return null;
     }
 }
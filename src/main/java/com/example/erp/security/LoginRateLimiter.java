@@ -0,0 +1,96 @@
+package com.example.erp.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token buckets that cap login attempts per account and per client IP, checked before any
+ * password hashing happens so credential-stuffing bursts are rejected without spending CPU.
+ * The account limit is the real guard; the IP limit is a much looser backstop, since one address
+ * can be a proxy or NAT shared by many users. The client IP is the one resolved from
+ * {@code X-Forwarded-For} by {@code server.forward-headers-strategy}.
+ */
+@Component
+public class LoginRateLimiter {
+    
+    private static final class TokenBucket {
+        private final int capacity;
+        private final double refillPerMs;
+        private double tokens;
+        private long lastRefill;
+        
+        TokenBucket(int capacity, int refillPerMinute, long now) {
+            this.capacity = capacity;
+            this.refillPerMs = refillPerMinute / 60_000.0;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+        
+        synchronized long tryConsume(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerMs);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / refillPerMs);
+        }
+        
+        synchronized boolean isFull(long now) {
+            return tokens + (now - lastRefill) * refillPerMs >= capacity;
+        }
+    }
+    
+    private final Map<String, TokenBucket> accountBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> ipBuckets = new ConcurrentHashMap<>();
+    
+    @Value("${app.auth.rate-limit.account.capacity:5}")
+    private int accountCapacity;
+    
+    @Value("${app.auth.rate-limit.account.refill-per-minute:5}")
+    private int accountRefillPerMinute;
+    
+    @Value("${app.auth.rate-limit.ip.capacity:300}")
+    private int ipCapacity;
+    
+    @Value("${app.auth.rate-limit.ip.refill-per-minute:300}")
+    private int ipRefillPerMinute;
+    
+    /**
+     * Takes one attempt from the IP and account buckets. Returns 0 if the attempt may proceed,
+     * otherwise the number of seconds after which the caller should retry.
+     */
+    public long tryAcquire(String email, String clientIp) {
+        long now = System.currentTimeMillis();
+        long ipWait = ipBuckets
+            .computeIfAbsent(clientIp, key -> new TokenBucket(ipCapacity, ipRefillPerMinute, now))
+            .tryConsume(now);
+        if (ipWait > 0) {
+            return toSeconds(ipWait);
+        }
+        String account = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+        long accountWait = accountBuckets
+            .computeIfAbsent(account, key -> new TokenBucket(accountCapacity, accountRefillPerMinute, now))
+            .tryConsume(now);
+        return accountWait > 0 ? toSeconds(accountWait) : 0;
+    }
+    
+    /**
+     * Drops buckets that have refilled completely; they behave exactly like new ones.
+     */
+    @Scheduled(fixedDelayString = "${app.auth.rate-limit.cleanup-interval-ms:60000}")
+    public void removeIdleBuckets() {
+        long now = System.currentTimeMillis();
+        accountBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        ipBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+    
+    private static long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.erp.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ownership checks for {@code @PreAuthorize}, e.g. {@code @ownership.isStudent(#studentId)}.
+ * The caller's user, student and faculty ids are resolved when the principal is built, so
+ * these checks never touch the database.
+ */
+@Component("ownership")
+public class OwnershipChecker {
+    
+    public boolean isUser(Long userId) {
+        UserPrincipal principal = currentPrincipal();
+        return principal != null && userId != null && userId.equals(principal.getUserId());
+    }
+    
+    public boolean isStudent(Long studentId) {
+        UserPrincipal principal = currentPrincipal();
+        return principal != null && studentId != null && studentId.equals(principal.getStudentId());
+    }
+    
+    public boolean isFaculty(Long facultyId) {
+        UserPrincipal principal = currentPrincipal();
+        return principal != null && facultyId != null && facultyId.equals(principal.getFacultyId());
+    }
+    
+    private UserPrincipal currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal;
+        }
+        return null;
+    }
+}
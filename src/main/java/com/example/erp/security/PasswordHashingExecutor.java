@@ -0,0 +1,71 @@
+package com.example.erp.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool for password verification (BCrypt), kept off the servlet threads so a login
+ * surge cannot starve every other endpoint. When all threads are busy and the queue is full,
+ * {@link #submit} fails immediately with {@link RejectedExecutionException}.
+ * Publishes {@code auth.password.verify} (time spent verifying), {@code auth.password.queue.wait},
+ * {@code auth.password.queue.size} and {@code auth.password.rejected}.
+ */
+@Component
+public class PasswordHashingExecutor {
+    
+    private final ThreadPoolExecutor executor;
+    private final Timer verifyTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+    
+    public PasswordHashingExecutor(MeterRegistry meterRegistry,
+                                   @Value("${app.auth.hashing.threads:0}") int threads,
+                                   @Value("${app.auth.hashing.queue-capacity:100}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        this.verifyTimer = meterRegistry.timer("auth.password.verify");
+        this.queueWaitTimer = meterRegistry.timer("auth.password.queue.wait");
+        this.rejectedCounter = meterRegistry.counter("auth.password.rejected");
+        Gauge.builder("auth.password.queue.size", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+    
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return verifyTimer.record(task);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw e;
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
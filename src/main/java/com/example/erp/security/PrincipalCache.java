@@ -0,0 +1,72 @@
+package com.example.erp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of principals loaded from the database, for when the filter must not rely
+ * on token claims alone. Entries expire after {@code ttl-seconds}; the cache holds at most
+ * {@code max-entries} users. Principals are cached without their password hash, which request
+ * authentication never needs. {@link com.example.erp.service.UserService} evicts a user when
+ * it is updated or deleted.
+ */
+@Component
+public class PrincipalCache {
+    
+    private final Cache<Long, UserPrincipal> entries;
+    
+    public PrincipalCache(@Value("${app.security.principal-cache.max-entries:10000}") long maxEntries,
+                          @Value("${app.security.principal-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.entries = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .build();
+    }
+    
+    public UserPrincipal get(Long userId, Supplier<UserPrincipal> loader) {
+        return entries.get(userId, id -> withoutPassword(loader.get()));
+    }
+    
+    public void evict(Long userId) {
+        entries.invalidate(userId);
+    }
+    
+    /**
+     * Evicts now and again once the current transaction commits, so a request that reloads the
+     * user in between cannot cache the pre-commit row.
+     */
+    public void evictAfterCommit(Long userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+    
+    public void clear() {
+        entries.invalidateAll();
+    }
+    
+    private static UserPrincipal withoutPassword(UserPrincipal principal) {
+        return new UserPrincipal(
+            principal.getUserId(),
+            principal.getEmail(),
+            null,
+            principal.getDepartmentId(),
+            principal.getStudentId(),
+            principal.getFacultyId(),
+            principal.getAuthorities()
+        );
+    }
+}
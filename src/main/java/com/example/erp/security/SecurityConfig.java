@@ -94,6 +94,7 @@ public class SecurityConfig {
                     auth.requestMatchers(pattern).permitAll();
                 }
                 auth.requestMatchers("/api/users/register").permitAll();
+                auth.requestMatchers("/actuator/**").hasRole("ADMIN");
                 auth.requestMatchers("/api/**").authenticated();
                 auth.anyRequest().authenticated();
             })
@@ -128,7 +129,7 @@ public class SecurityConfig {
             configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
             configuration.setAllowedHeaders(List.of(
                     "Authorization", "Content-Type", "X-Requested-With", "Accept", "Origin",
-                    "Access-Control-Request-Method", "Access-Control-Request-Headers"));
+                    "Access-Control-Request-Method", "Access-Control-Request-Headers", "Idempotency-Key"));
             configuration.setExposedHeaders(List.of("Authorization", "Content-Disposition"));
             configuration.setAllowCredentials(true);
             configuration.setMaxAge(3600L);
@@ -0,0 +1,178 @@
+package com.example.erp.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-side token revocation without a database read per request.
+ * <p>
+ * Single tokens are revoked by their {@code jti} (or SHA-256 for tokens issued without one).
+ * Revoked ids sit in an exact map in front of which a {@link BloomFilter} answers the common
+ * "not revoked" case with a few bit lookups. Password changes and deletions revoke every token
+ * of a user through a per-user cutoff: tokens issued before it are rejected. Entries expire when
+ * the tokens they cover would have expired anyway.
+ * <p>
+ * Revocations are written to {@code revoked_token} and {@code user_token_cutoff}, loaded at
+ * startup and re-read periodically so other instances converge.
+ */
+@Slf4j
+@Component
+public class TokenRevocationService {
+    
+    private static final String INSERT_TOKEN_SQL =
+        "INSERT INTO revoked_token (token_key, user_id, expires_at) VALUES (?, ?, ?) ON CONFLICT (token_key) DO NOTHING";
+    
+    private static final String UPSERT_CUTOFF_SQL =
+        "INSERT INTO user_token_cutoff (user_id, not_before, expires_at) VALUES (?, ?, ?) "
+        + "ON CONFLICT (user_id) DO UPDATE SET not_before = EXCLUDED.not_before, expires_at = EXCLUDED.expires_at";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final long tokenLifetimeMs;
+    private final Counter syncFailedCounter;
+    
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<Long, Long> userCutoffs = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    private volatile Timestamp lastSync = new Timestamp(0);
+    
+    public TokenRevocationService(JdbcTemplate jdbcTemplate,
+                                  @Value("${app.security.revocation.expected-entries:100000}") int expectedEntries,
+                                  @Value("${app.security.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                  @Value("${app.jwt.expiration}") long tokenLifetimeMs,
+                                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.tokenLifetimeMs = tokenLifetimeMs;
+        this.syncFailedCounter = meterRegistry.counter("token.revocation.sync.failed");
+        this.bloomFilter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+    
+    @PostConstruct
+    public void load() {
+        sync();
+    }
+    
+    /**
+     * True if the token was revoked on its own or belongs to a user whose tokens were all revoked.
+     */
+    public boolean isRevoked(String token, Claims claims) {
+        Long cutoff = userCutoffs.get(Long.parseLong(claims.getSubject()));
+        if (cutoff != null && claims.getIssuedAt() != null
+                && claims.getIssuedAt().getTime() / 1000 < cutoff / 1000) {
+            return true;
+        }
+        String key = tokenKey(token, claims);
+        if (!bloomFilter.mightContain(key)) {
+            return false;
+        }
+        Long expiresAt = revokedTokens.get(key);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+    
+    /**
+     * Revokes one token until its own expiry.
+     */
+    public void revoke(String token, Claims claims) {
+        String key = tokenKey(token, claims);
+        long expiresAt = claims.getExpiration().getTime();
+        jdbcTemplate.update(INSERT_TOKEN_SQL, key, Long.parseLong(claims.getSubject()), new Timestamp(expiresAt));
+        addToken(key, expiresAt);
+    }
+    
+    /**
+     * Revokes every token issued to the user so far. Persisted in the current transaction;
+     * applied in memory once it commits.
+     */
+    public void revokeAllForUser(Long userId) {
+        long now = System.currentTimeMillis();
+        jdbcTemplate.update(UPSERT_CUTOFF_SQL, userId, new Timestamp(now), new Timestamp(now + tokenLifetimeMs));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userCutoffs.merge(userId, now, Math::max);
+                }
+            });
+        } else {
+            userCutoffs.merge(userId, now, Math::max);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.security.revocation.sync-interval-ms:30000}")
+    public void sync() {
+        try {
+            // Overlap the window a little so rows committed late by another instance are not missed
+            Timestamp since = new Timestamp(Math.max(0, lastSync.getTime() - 60_000));
+            Timestamp startedAt = new Timestamp(System.currentTimeMillis());
+            jdbcTemplate.query(
+                "SELECT token_key, expires_at FROM revoked_token WHERE revoked_at >= ? AND expires_at > CURRENT_TIMESTAMP",
+                rs -> {
+                    addToken(rs.getString("token_key"), rs.getTimestamp("expires_at").getTime());
+                }, since);
+            jdbcTemplate.query(
+                "SELECT user_id, not_before FROM user_token_cutoff WHERE not_before >= ? AND expires_at > CURRENT_TIMESTAMP",
+                rs -> {
+                    userCutoffs.merge(rs.getLong("user_id"), rs.getTimestamp("not_before").getTime(), Math::max);
+                }, since);
+            lastSync = startedAt;
+            pruneExpired();
+        } catch (Exception e) {
+            // lastSync is not advanced, so the next run reads the missed window again
+            syncFailedCounter.increment();
+            log.error("Failed to sync token revocations", e);
+        }
+    }
+    
+    private void pruneExpired() {
+        long now = System.currentTimeMillis();
+        boolean removed = revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        userCutoffs.values().removeIf(cutoff -> cutoff + tokenLifetimeMs <= now);
+        if (removed) {
+            // Bloom filters cannot forget, so start a fresh one from the live entries
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revokedTokens.size()), falsePositiveRate);
+            revokedTokens.keySet().forEach(rebuilt::add);
+            bloomFilter = rebuilt;
+            // Tokens revoked while rebuilding are added to the new filter as well
+            revokedTokens.keySet().forEach(rebuilt::add);
+        }
+        jdbcTemplate.update("DELETE FROM revoked_token WHERE expires_at <= CURRENT_TIMESTAMP");
+        jdbcTemplate.update("DELETE FROM user_token_cutoff WHERE expires_at <= CURRENT_TIMESTAMP");
+    }
+    
+    private void addToken(String key, long expiresAt) {
+        revokedTokens.put(key, expiresAt);
+        bloomFilter.add(key);
+    }
+    
+    private static String tokenKey(String token, Claims claims) {
+        if (claims.getId() != null) {
+            return claims.getId();
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return "sha256:" + HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
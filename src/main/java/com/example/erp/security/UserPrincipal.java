@@ -20,6 +20,9 @@ public class UserPrincipal implements UserDetails {
     private Long userId;
     private String email;
     private String password;
+    private Long departmentId;
+    private Long studentId;
+    private Long facultyId;
     private Collection<? extends GrantedAuthority> authorities;
     
     public static UserPrincipal create(User user) {
@@ -43,6 +46,9 @@ public class UserPrincipal implements UserDetails {
             user.getUserId(),
             user.getEmail(),
             user.getPassword(),
+            user.getDepartmentId(),
+            user.getStudent() != null ? user.getStudent().getId() : null,
+            user.getFaculty() != null ? user.getFaculty().getId() : null,
             authorities
         );
     }
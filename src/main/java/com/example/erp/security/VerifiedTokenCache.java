@@ -0,0 +1,66 @@
+package com.example.erp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Claims of tokens whose signature has already been verified, keyed by the SHA-256 of the
+ * token so raw tokens are never held in memory. An entry lives until the token's own
+ * {@code exp}; the cache holds at most {@code max-entries} tokens and evicts by frequency and
+ * recency when full.
+ */
+@Component
+public class VerifiedTokenCache {
+    
+    private final Cache<String, Claims> entries;
+    
+    public VerifiedTokenCache(@Value("${app.jwt.claims-cache.max-entries:10000}") long maxEntries) {
+        this.entries = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfter(Expiry.creating((String key, Claims claims) ->
+                Duration.ofMillis(claims.getExpiration().getTime() - System.currentTimeMillis())))
+            .build();
+    }
+    
+    public Claims get(String token) {
+        return entries.getIfPresent(hash(token));
+    }
+    
+    public void put(String token, Claims claims) {
+        if (claims.getExpiration() == null || claims.getExpiration().getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        entries.put(hash(token), claims);
+    }
+    
+    public void evict(String token) {
+        entries.invalidate(hash(token));
+    }
+    
+    public void clear() {
+        entries.invalidateAll();
+    }
+    
+    public long size() {
+        return entries.estimatedSize();
+    }
+    
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
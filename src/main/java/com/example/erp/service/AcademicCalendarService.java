@@ -1,9 +1,15 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.AcademicCalendar;
 import com.example.erp.repository.AcademicCalendarRepository;
+import com.example.erp.repository.KeysetPaginator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
@@ -17,44 +23,74 @@ import java.util.Optional;
 public class AcademicCalendarService {
     
     private final AcademicCalendarRepository academicCalendarRepository;
+    private final KeysetPaginator keysetPaginator;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final CalendarIndex calendarIndex;
+    private final SingleFlight singleFlight;
     
+    @Cacheable(cacheNames = "academicCalendar", key = "'all'")
     public List<AcademicCalendar> getAllEvents() {
         return academicCalendarRepository.findAll();
     }
+
+    public CursorPage<AcademicCalendar> getEventsPage(PageQuery query) {
+        return keysetPaginator.findPage(AcademicCalendar.class, query);
+    }
     
+    @Cacheable(cacheNames = "academicCalendar", key = "'id:' + #id")
     public Optional<AcademicCalendar> getEventById(Long id) {
         return academicCalendarRepository.findById(id);
     }
     
+    @Cacheable(cacheNames = "academicCalendar", key = "'year:' + #academicYear")
     public List<AcademicCalendar> getEventsByAcademicYear(String academicYear) {
         return academicCalendarRepository.findByAcademicYear(academicYear);
     }
     
+    @Cacheable(cacheNames = "academicCalendar", key = "'type:' + #eventType")
     public List<AcademicCalendar> getEventsByType(AcademicCalendar.EventType eventType) {
         return academicCalendarRepository.findByEventType(eventType);
     }
     
+    @Cacheable(cacheNames = "academicCalendar", key = "'department:' + #departmentId")
     public List<AcademicCalendar> getEventsByDepartment(Long departmentId) {
         return academicCalendarRepository.findByDepartmentId(departmentId);
     }
     
     public List<AcademicCalendar> getHolidays() {
-        return academicCalendarRepository.findByIsHoliday(true);
+        return calendarIndex.findHolidays();
     }
     
+    // Cache misses (after each calendar write and every midnight) arrive together; they share one query
+    @Cacheable(cacheNames = "academicCalendar", key = "'upcoming:' + T(java.time.LocalDate).now()")
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<AcademicCalendar> getUpcomingEvents() {
-        return academicCalendarRepository.findUpcomingEvents(LocalDate.now());
+        LocalDate today = LocalDate.now();
+        return singleFlight.execute("upcomingEvents", today,
+            () -> List.copyOf(academicCalendarRepository.findUpcomingEvents(today)));
     }
     
+    /**
+     * Events whose span overlaps the range, including multi-day events that start before it.
+     */
     public List<AcademicCalendar> getEventsBetweenDates(LocalDate startDate, LocalDate endDate) {
-        return academicCalendarRepository.findByEventDateBetween(startDate, endDate);
+        return calendarIndex.findOverlapping(startDate, endDate);
+    }
+    
+    public boolean isWorkingDay(LocalDate date, Long departmentId) {
+        return calendarIndex.isWorkingDay(date, departmentId);
     }
     
+    @CacheEvict(cacheNames = "academicCalendar", allEntries = true)
     public AcademicCalendar createEvent(AcademicCalendar event) {
         event.setCreatedAt(LocalDateTime.now());
-        return academicCalendarRepository.save(event);
+        AcademicCalendar savedEvent = academicCalendarRepository.save(event);
+        calendarIndex.invalidateAfterCompletion();
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.ACADEMIC_CALENDAR, savedEvent.getId());
+        return savedEvent;
     }
     
+    @CacheEvict(cacheNames = "academicCalendar", allEntries = true)
     public AcademicCalendar updateEvent(Long id, AcademicCalendar eventDetails) {
         AcademicCalendar event = academicCalendarRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Academic calendar event not found with id: " + id));
@@ -79,13 +115,19 @@ public class AcademicCalendarService {
         }
         
         event.setUpdatedAt(LocalDateTime.now());
-        return academicCalendarRepository.save(event);
+        AcademicCalendar updatedEvent = academicCalendarRepository.save(event);
+        calendarIndex.invalidateAfterCompletion();
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.ACADEMIC_CALENDAR, id);
+        return updatedEvent;
     }
     
+    @CacheEvict(cacheNames = "academicCalendar", allEntries = true)
     public void deleteEvent(Long id) {
         if (!academicCalendarRepository.existsById(id)) {
             throw new RuntimeException("Academic calendar event not found with id: " + id);
         }
         academicCalendarRepository.deleteById(id);
+        calendarIndex.invalidateAfterCompletion();
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.ACADEMIC_CALENDAR, id);
     }
 }
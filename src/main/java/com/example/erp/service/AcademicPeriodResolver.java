@@ -0,0 +1,35 @@
+package com.example.erp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Maps calendar dates to academic years in the "2024-25" format used by enrollment,
+ * grade calculation and the academic calendar.
+ */
+@Component
+public class AcademicPeriodResolver {
+    
+    @Value("${app.academic-year.start-month:6}")
+    private int startMonth;
+    
+    public String academicYearOf(LocalDate date) {
+        int startYear = date.getMonthValue() >= startMonth ? date.getYear() : date.getYear() - 1;
+        return startYear + "-" + String.format("%02d", (startYear + 1) % 100);
+    }
+    
+    public LocalDate startOf(String academicYear) {
+        int startYear = Integer.parseInt(academicYear.substring(0, 4));
+        return LocalDate.of(startYear, startMonth, 1);
+    }
+    
+    public LocalDate endOf(String academicYear) {
+        return startOf(academicYear).plusYears(1).minusDays(1);
+    }
+    
+    public int getStartMonth() {
+        return startMonth;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.erp.service;
+
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
+import com.example.erp.dto.StandingEntry;
+import com.example.erp.dto.StudentStanding;
+import com.example.erp.dto.TermStanding;
+import com.example.erp.repository.KeysetPaginator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Credit-weighted SGPA and CGPA of a student across semesters, and their place in their batch
+ * and department. The rank lists come from {@link CohortRankingService}, which computes and
+ * caches a whole cohort at a time.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class AcademicStandingService {
+    
+    // One row per semester with published grades, each with the CGPA as of that semester
+    private static final String TERMS_SQL =
+        "WITH terms AS ("
+        + "SELECT DISTINCT academic_year, semester FROM grade_calculation "
+        + "WHERE student_id = :studentId AND status = 'PUBLISHED' AND credits > 0"
+        + "), attempts AS ("
+        + "SELECT t.academic_year AS term_year, t.semester AS term_semester, "
+        + "gc.academic_year, gc.semester, gc.grade_points, gc.credits, "
+        + "ROW_NUMBER() OVER (PARTITION BY t.academic_year, t.semester, gc.subject_id "
+        + "ORDER BY gc.academic_year DESC, gc.semester DESC) AS attempt "
+        + "FROM terms t JOIN grade_calculation gc ON gc.student_id = :studentId "
+        + "AND gc.status = 'PUBLISHED' AND gc.credits > 0 "
+        + "AND (gc.academic_year < t.academic_year "
+        + "OR (gc.academic_year = t.academic_year AND gc.semester <= t.semester))"
+        + ") "
+        + "SELECT term_year, term_semester, "
+        + "ROUND(SUM(grade_points * credits) FILTER (WHERE academic_year = term_year AND semester = term_semester) "
+        + "/ SUM(credits) FILTER (WHERE academic_year = term_year AND semester = term_semester), 2) AS sgpa, "
+        + "SUM(credits) FILTER (WHERE academic_year = term_year AND semester = term_semester) AS semester_credits, "
+        + "ROUND(SUM(grade_points * credits) FILTER (WHERE attempt = 1) "
+        + "/ SUM(credits) FILTER (WHERE attempt = 1), 2) AS cgpa, "
+        + "SUM(credits) FILTER (WHERE attempt = 1) AS total_credits "
+        + "FROM attempts GROUP BY term_year, term_semester ORDER BY term_year, term_semester";
+    
+    private static final String COHORT_SQL =
+        "SELECT st.batch, u.department_id FROM student st JOIN users u ON u.user_id = st.user_id WHERE st.id = :studentId";
+    
+    private final NamedParameterJdbcTemplate jdbc;
+    private final CohortRankingService cohortRankingService;
+    private final KeysetPaginator keysetPaginator;
+    
+    public CursorPage<StandingEntry> getBatchRanking(String batch, String academicYear, Integer semester,
+                                                     CohortRankingService.RankBy rankBy, PageQuery query) {
+        return keysetPaginator.pageOf(
+            cohortRankingService.rankBatch(batch, academicYear, semester, rankBy),
+            StandingEntry::getStudentId, query);
+    }
+    
+    public CursorPage<StandingEntry> getDepartmentRanking(Long departmentId, String academicYear, Integer semester,
+                                                          CohortRankingService.RankBy rankBy, PageQuery query) {
+        return keysetPaginator.pageOf(
+            cohortRankingService.rankDepartment(departmentId, academicYear, semester, rankBy),
+            StandingEntry::getStudentId, query);
+    }
+    
+    public List<StandingEntry> getBatchRanking(String batch, String academicYear, Integer semester,
+                                               CohortRankingService.RankBy rankBy) {
+        return cohortRankingService.rankBatch(batch, academicYear, semester, rankBy);
+    }
+    
+    public List<StandingEntry> getDepartmentRanking(Long departmentId, String academicYear, Integer semester,
+                                                    CohortRankingService.RankBy rankBy) {
+        return cohortRankingService.rankDepartment(departmentId, academicYear, semester, rankBy);
+    }
+    
+    public StudentStanding getStudentStanding(Long studentId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("studentId", studentId);
+        List<Map<String, Object>> cohort = jdbc.queryForList(COHORT_SQL, params);
+        if (cohort.isEmpty()) {
+            throw new RuntimeException("Student not found with id: " + studentId);
+        }
+        String batch = (String) cohort.get(0).get("batch");
+        Long departmentId = cohort.get(0).get("department_id") != null
+            ? ((Number) cohort.get(0).get("department_id")).longValue() : null;
+        
+        List<TermStanding> terms = jdbc.query(TERMS_SQL, params, (rs, rowNum) -> new TermStanding(
+            rs.getString("term_year"),
+            rs.getInt("term_semester"),
+            rs.getBigDecimal("sgpa"),
+            rs.getLong("semester_credits"),
+            rs.getBigDecimal("cgpa"),
+            rs.getLong("total_credits")));
+        
+        StandingEntry batchStanding = null;
+        StandingEntry departmentStanding = null;
+        if (!terms.isEmpty()) {
+            TermStanding latest = terms.get(terms.size() - 1);
+            if (batch != null) {
+                batchStanding = find(cohortRankingService.rankBatch(batch, latest.getAcademicYear(),
+                    latest.getSemester(), CohortRankingService.RankBy.SGPA), studentId);
+            }
+            if (departmentId != null) {
+                departmentStanding = find(cohortRankingService.rankDepartment(departmentId, latest.getAcademicYear(),
+                    latest.getSemester(), CohortRankingService.RankBy.SGPA), studentId);
+            }
+        }
+        return new StudentStanding(studentId, terms, batchStanding, departmentStanding);
+    }
+    
+    private static StandingEntry find(List<StandingEntry> ranking, Long studentId) {
+        for (StandingEntry entry : ranking) {
+            if (entry.getStudentId().equals(studentId)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Accreditation;
 import com.example.erp.repository.AccreditationRepository;
+import com.example.erp.repository.KeysetPaginator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,10 +18,15 @@ import java.util.Optional;
 public class AccreditationService {
     
     private final AccreditationRepository accreditationRepository;
+    private final KeysetPaginator keysetPaginator;
     
     public List<Accreditation> getAllAccreditations() {
         return accreditationRepository.findAll();
     }
+
+    public CursorPage<Accreditation> getAccreditationsPage(PageQuery query) {
+        return keysetPaginator.findPage(Accreditation.class, query);
+    }
     
     public Optional<Accreditation> getAccreditationById(Long id) {
         return accreditationRepository.findById(id);
@@ -0,0 +1,197 @@
+package com.example.erp.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Department-wide attendance shortage report. The whole report is one grouped query whose
+ * rows are written to the response as they arrive from a server-side cursor, so memory use
+ * does not grow with the size of the department.
+ */
+@Service
+public class AttendanceReportService {
+    
+    private static final int FETCH_SIZE = 500;
+    
+    private static final String SELECT_COLUMNS =
+        "SELECT st.id AS student_id, st.prn_number, u.name AS student_name, "
+        + "sub.id AS subject_id, sub.code AS subject_code, sub.name AS subject_name, ";
+    
+    private static final String JOINS =
+        "JOIN student st ON st.id = x.student_id "
+        + "JOIN users u ON u.user_id = st.user_id "
+        + "JOIN subject sub ON sub.id = x.subject_id ";
+    
+    private static final String GROUP_AND_FILTER =
+        "GROUP BY st.id, st.prn_number, u.name, sub.id, sub.code, sub.name ";
+    
+    // Reads the incrementally maintained counters; used when no date range is given
+    private static final String SUMMARY_SQL = SELECT_COLUMNS
+        + "SUM(x.total_count) AS total, SUM(x.present_count) AS present, "
+        + "SUM(x.late_count) AS late, SUM(x.absent_count) AS absent "
+        + "FROM attendance_summary x " + JOINS
+        + "WHERE u.department_id = :departmentId "
+        + GROUP_AND_FILTER
+        + "HAVING SUM(x.total_count) > 0 "
+        + "AND (SUM(x.present_count) + :lateWeight * SUM(x.late_count)) * 100.0 / SUM(x.total_count) < :threshold "
+        + "ORDER BY sub.id, st.id";
+    
+    // Aggregates the raw table for an arbitrary date range
+    private static final String RANGE_SQL = SELECT_COLUMNS
+        + "COUNT(*) AS total, COUNT(*) FILTER (WHERE x.status = 'PRESENT') AS present, "
+        + "COUNT(*) FILTER (WHERE x.status = 'LATE') AS late, COUNT(*) FILTER (WHERE x.status = 'ABSENT') AS absent "
+        + "FROM attendance x " + JOINS
+        + "WHERE u.department_id = :departmentId AND x.date BETWEEN :fromDate AND :toDate "
+        + GROUP_AND_FILTER
+        + "HAVING (COUNT(*) FILTER (WHERE x.status = 'PRESENT') + :lateWeight * COUNT(*) FILTER (WHERE x.status = 'LATE')) "
+        + "* 100.0 / COUNT(*) < :threshold "
+        + "ORDER BY sub.id, st.id";
+    
+    private static final String CSV_HEADER =
+        "student_id,prn_number,student_name,subject_id,subject_code,subject_name,total,present,late,absent,percentage";
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final AcademicPeriodResolver academicPeriodResolver;
+    
+    @Value("${app.attendance.late-weight:1.0}")
+    private double lateWeight;
+    
+    public AttendanceReportService(DataSource dataSource,
+                                   PlatformTransactionManager transactionManager,
+                                   ObjectMapper objectMapper,
+                                   AcademicPeriodResolver academicPeriodResolver) {
+        JdbcTemplate cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(FETCH_SIZE);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(cursorTemplate);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.academicPeriodResolver = academicPeriodResolver;
+    }
+    
+    /**
+     * Writes every student/subject pair of the department whose attendance is below the
+     * threshold. Without a date range the summary table is used; with one, the raw table.
+     */
+    public void writeShortageReport(Long departmentId, double threshold, LocalDate fromDate, LocalDate toDate,
+                                    boolean csv, OutputStream out) throws IOException {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("departmentId", departmentId)
+            .addValue("threshold", threshold)
+            .addValue("lateWeight", lateWeight);
+        
+        String sql = SUMMARY_SQL;
+        if (fromDate != null || toDate != null) {
+            LocalDate to = toDate != null ? toDate : LocalDate.now();
+            LocalDate from = fromDate != null ? fromDate : academicPeriodResolver.startOf(academicPeriodResolver.academicYearOf(to));
+            if (from.isAfter(to)) {
+                throw new RuntimeException("Start date must not be after end date");
+            }
+            params.addValue("fromDate", from).addValue("toDate", to);
+            sql = RANGE_SQL;
+        }
+        
+        if (csv) {
+            writeCsv(sql, params, out);
+        } else {
+            writeJson(sql, params, out);
+        }
+    }
+    
+    private void writeJson(String sql, MapSqlParameterSource params, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartArray();
+            stream(sql, params, rs -> {
+                try {
+                    json.writeStartObject();
+                    json.writeNumberField("studentId", rs.getLong("student_id"));
+                    json.writeStringField("prnNumber", rs.getString("prn_number"));
+                    json.writeStringField("studentName", rs.getString("student_name"));
+                    json.writeNumberField("subjectId", rs.getLong("subject_id"));
+                    json.writeStringField("subjectCode", rs.getString("subject_code"));
+                    json.writeStringField("subjectName", rs.getString("subject_name"));
+                    json.writeNumberField("total", rs.getLong("total"));
+                    json.writeNumberField("present", rs.getLong("present"));
+                    json.writeNumberField("late", rs.getLong("late"));
+                    json.writeNumberField("absent", rs.getLong("absent"));
+                    json.writeNumberField("percentage", percentage(rs));
+                    json.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            json.writeEndArray();
+        }
+    }
+    
+    private void writeCsv(String sql, MapSqlParameterSource params, OutputStream out) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.newLine();
+        stream(sql, params, rs -> {
+            try {
+                writer.write(rs.getLong("student_id") + ","
+                    + csvField(rs.getString("prn_number")) + ","
+                    + csvField(rs.getString("student_name")) + ","
+                    + rs.getLong("subject_id") + ","
+                    + csvField(rs.getString("subject_code")) + ","
+                    + csvField(rs.getString("subject_name")) + ","
+                    + rs.getLong("total") + ","
+                    + rs.getLong("present") + ","
+                    + rs.getLong("late") + ","
+                    + rs.getLong("absent") + ","
+                    + String.format(Locale.ROOT, "%.2f", percentage(rs)));
+                writer.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+    
+    private void stream(String sql, MapSqlParameterSource params, RowCallbackHandler handler) {
+        // A transaction turns off autocommit, which the PostgreSQL driver needs to honour the fetch size
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(sql, params, handler));
+    }
+    
+    private double percentage(ResultSet rs) throws SQLException {
+        long total = rs.getLong("total");
+        if (total == 0) {
+            return 0.0;
+        }
+        return (rs.getLong("present") + rs.getLong("late") * lateWeight) / total * 100;
+    }
+    
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -1,16 +1,33 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
+import com.example.erp.dto.BulkAttendanceRequest;
+import com.example.erp.dto.AttendanceStats;
+import com.example.erp.dto.BulkAttendanceResponse;
 import com.example.erp.entity.Attendance;
+import com.example.erp.entity.Subject;
 import com.example.erp.repository.AttendanceRepository;
+import com.example.erp.repository.AttendanceSummaryRepository;
+import com.example.erp.repository.KeysetPaginator;
 import com.example.erp.repository.StudentRepository;
-import com.example.erp.repository.SubjectRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -18,13 +35,27 @@ import java.util.Optional;
 public class AttendanceService {
     
     private final AttendanceRepository attendanceRepository;
+    private final KeysetPaginator keysetPaginator;
     private final LogService logService;
+    private final ReferenceLookupService referenceLookupService;
     private final StudentRepository studentRepository;
-    private final SubjectRepository subjectRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final AttendanceSummaryRepository attendanceSummaryRepository;
+    private final AttendanceSummaryService attendanceSummaryService;
+    private final SubjectService subjectService;
+    private final CalendarIndex calendarIndex;
+    
+    // Share of a LATE mark that counts towards attendance (1.0 = same as PRESENT, 0.0 = same as ABSENT)
+    @Value("${app.attendance.late-weight:1.0}")
+    private double lateWeight;
     
     public List<Attendance> getAllAttendance() {
         return attendanceRepository.findAll();
     }
+
+    public CursorPage<Attendance> getAttendancePage(PageQuery query) {
+        return keysetPaginator.findPage(Attendance.class, query);
+    }
     
     public Optional<Attendance> getAttendanceById(Long id) {
         return attendanceRepository.findById(id);
@@ -50,6 +81,33 @@ public class AttendanceService {
         return attendanceRepository.findByStudentIdAndDateBetween(studentId, startDate, endDate);
     }
     
+    public CursorPage<Attendance> getAttendancePageByStudent(Long studentId, PageQuery query) {
+        return keysetPaginator.findPage(Attendance.class, query,
+            (root, cq, cb) -> cb.equal(root.get("studentId"), studentId));
+    }
+    
+    public CursorPage<Attendance> getAttendancePageBySubject(Long subjectId, PageQuery query) {
+        return keysetPaginator.findPage(Attendance.class, query,
+            (root, cq, cb) -> cb.equal(root.get("subjectId"), subjectId));
+    }
+    
+    public CursorPage<Attendance> getAttendancePageByDate(LocalDate date, PageQuery query) {
+        return keysetPaginator.findPage(Attendance.class, query,
+            (root, cq, cb) -> cb.equal(root.get("date"), date));
+    }
+    
+    public CursorPage<Attendance> getAttendancePageByStudentAndSubject(Long studentId, Long subjectId, PageQuery query) {
+        return keysetPaginator.findPage(Attendance.class, query,
+            (root, cq, cb) -> cb.and(cb.equal(root.get("studentId"), studentId), cb.equal(root.get("subjectId"), subjectId)));
+    }
+    
+    public CursorPage<Attendance> getAttendancePageByDateRange(Long studentId, LocalDate startDate, LocalDate endDate,
+                                                              PageQuery query) {
+        return keysetPaginator.findPage(Attendance.class, query,
+            (root, cq, cb) -> cb.and(cb.equal(root.get("studentId"), studentId),
+                                     cb.between(root.get("date"), startDate, endDate)));
+    }
+    
     public Attendance markAttendance(Attendance attendance) {
         // Validate required fields
         if (attendance.getStudentId() == null) {
@@ -66,15 +124,17 @@ public class AttendanceService {
         }
         
         // Validate student exists
-        if (!studentRepository.existsById(attendance.getStudentId())) {
+        if (!referenceLookupService.studentExists(attendance.getStudentId())) {
             throw new RuntimeException("Student not found with id: " + attendance.getStudentId());
         }
         
         // Validate subject exists
-        if (!subjectRepository.existsById(attendance.getSubjectId())) {
+        if (!referenceLookupService.subjectExists(attendance.getSubjectId())) {
             throw new RuntimeException("Subject not found with id: " + attendance.getSubjectId());
         }
         
+        requireWorkingDay(attendance.getSubjectId(), attendance.getDate());
+        
         // Validate date is not in the future
         if (attendance.getDate().isAfter(LocalDate.now())) {
             throw new RuntimeException("Cannot mark attendance for future dates");
@@ -96,13 +156,111 @@ public class AttendanceService {
         }
         
         Attendance savedAttendance = attendanceRepository.save(attendance);
+        attendanceSummaryService.recordMarked(savedAttendance.getStudentId(), savedAttendance.getSubjectId(),
+            savedAttendance.getDate(), savedAttendance.getStatus());
         logService.logAction(null, "CREATE", "Attendance", savedAttendance.getId());
         return savedAttendance;
     }
     
+    /**
+     * Marks a whole roll call in one transaction: one existence query for all students,
+     * one indexed duplicate lookup, one batch insert for the rows and one for the audit entries.
+     */
+    public BulkAttendanceResponse markBulkAttendance(BulkAttendanceRequest request) {
+        if (request.getSubjectId() == null) {
+            throw new RuntimeException("Subject ID is required");
+        }
+        if (request.getDate() == null) {
+            throw new RuntimeException("Date is required");
+        }
+        if (request.getEntries() == null || request.getEntries().isEmpty()) {
+            throw new RuntimeException("At least one attendance entry is required");
+        }
+        
+        if (request.getDate().isAfter(LocalDate.now())) {
+            throw new RuntimeException("Cannot mark attendance for future dates");
+        }
+        if (request.getDate().isBefore(LocalDate.now().minusDays(30))) {
+            throw new RuntimeException("Cannot mark attendance for dates older than 30 days");
+        }
+        
+        if (!referenceLookupService.subjectExists(request.getSubjectId())) {
+            throw new RuntimeException("Subject not found with id: " + request.getSubjectId());
+        }
+        requireWorkingDay(request.getSubjectId(), request.getDate());
+        
+        Set<Long> studentIds = new LinkedHashSet<>();
+        for (BulkAttendanceRequest.Entry entry : request.getEntries()) {
+            if (entry.getStudentId() == null) {
+                throw new RuntimeException("Student ID is required");
+            }
+            if (!studentIds.add(entry.getStudentId())) {
+                throw new RuntimeException("Student " + entry.getStudentId() + " appears more than once in the roll call");
+            }
+        }
+        
+        Set<Long> missingStudents = new LinkedHashSet<>(studentIds);
+        missingStudents.removeAll(new HashSet<>(studentRepository.findExistingIds(studentIds)));
+        if (!missingStudents.isEmpty()) {
+            throw new RuntimeException("Students not found with ids: " + missingStudents);
+        }
+        
+        List<Long> alreadyMarked = attendanceRepository.findMarkedStudentIds(
+            request.getSubjectId(), request.getDate(), studentIds);
+        if (!alreadyMarked.isEmpty()) {
+            throw new RuntimeException("Attendance already marked for students " + alreadyMarked
+                + " on this subject and date. Use update instead.");
+        }
+        
+        List<Long> attendanceIds = insertAttendanceBatch(request.getSubjectId(), request.getDate(), request.getEntries());
+        attendanceSummaryService.recordMarkedBatch(request.getSubjectId(), request.getDate(), request.getEntries());
+        logService.logActions(null, "CREATE", "Attendance", attendanceIds);
+        return new BulkAttendanceResponse(request.getSubjectId(), request.getDate(), attendanceIds.size(), attendanceIds);
+    }
+    
+    /**
+     * Rejects holidays of the whole institution or of the subject's department. Both lookups are
+     * in memory: the subject comes from the reference-data cache and the date from {@link CalendarIndex}.
+     */
+    private void requireWorkingDay(Long subjectId, LocalDate date) {
+        Long departmentId = subjectService.getSubjectById(subjectId).map(Subject::getDepartmentId).orElse(null);
+        if (!calendarIndex.isWorkingDay(date, departmentId)) {
+            throw new RuntimeException("Cannot mark attendance on " + date + ": it is not a working day");
+        }
+    }
+    
+    private List<Long> insertAttendanceBatch(Long subjectId, LocalDate date, List<BulkAttendanceRequest.Entry> entries) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO attendance (student_id, subject_id, date, status) VALUES (?, ?, ?, ?)",
+                    new String[] {"id"})) {
+                for (BulkAttendanceRequest.Entry entry : entries) {
+                    Attendance.AttendanceStatus status = entry.getStatus() != null
+                        ? entry.getStatus() : Attendance.AttendanceStatus.PRESENT;
+                    ps.setLong(1, entry.getStudentId());
+                    ps.setLong(2, subjectId);
+                    ps.setDate(3, Date.valueOf(date));
+                    ps.setString(4, status.name());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                
+                List<Long> ids = new ArrayList<>(entries.size());
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+    
     public Attendance updateAttendance(Long id, Attendance attendanceDetails) {
         Attendance attendance = attendanceRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Attendance not found with id: " + id));
+        LocalDate previousDate = attendance.getDate();
+        Attendance.AttendanceStatus previousStatus = attendance.getStatus();
         
         // Update status if provided
         if (attendanceDetails.getStatus() != null) {
@@ -123,6 +281,8 @@ public class AttendanceService {
             
             // Check if changing date would create duplicate
             if (!attendance.getDate().equals(attendanceDetails.getDate())) {
+                requireWorkingDay(attendance.getSubjectId(), attendanceDetails.getDate());
+                
                 List<Attendance> existingAttendance = attendanceRepository.findByStudentIdAndSubjectId(
                     attendance.getStudentId(), attendance.getSubjectId());
                 
@@ -137,6 +297,12 @@ public class AttendanceService {
         }
         
         Attendance updatedAttendance = attendanceRepository.save(attendance);
+        if (previousStatus != updatedAttendance.getStatus() || !previousDate.equals(updatedAttendance.getDate())) {
+            attendanceSummaryService.recordRemoved(updatedAttendance.getStudentId(), updatedAttendance.getSubjectId(),
+                previousDate, previousStatus);
+            attendanceSummaryService.recordMarked(updatedAttendance.getStudentId(), updatedAttendance.getSubjectId(),
+                updatedAttendance.getDate(), updatedAttendance.getStatus());
+        }
         logService.logAction(null, "UPDATE", "Attendance", id);
         return updatedAttendance;
     }
@@ -146,21 +312,48 @@ public class AttendanceService {
             .orElseThrow(() -> new RuntimeException("Attendance not found with id: " + id));
         
         attendanceRepository.delete(attendance);
+        attendanceSummaryService.recordRemoved(attendance.getStudentId(), attendance.getSubjectId(),
+            attendance.getDate(), attendance.getStatus());
         logService.logAction(null, "DELETE", "Attendance", id);
     }
     
+    public int rebuildAttendanceSummary() {
+        return attendanceSummaryService.rebuild();
+    }
+    
     public long getPresentCountByStudentAndSubject(Long studentId, Long subjectId) {
         return attendanceRepository.countPresentByStudentAndSubject(studentId, subjectId, Attendance.AttendanceStatus.PRESENT);
     }
     
     public double getAttendancePercentage(Long studentId, Long subjectId) {
-        List<Attendance> totalAttendance = attendanceRepository.findByStudentIdAndSubjectId(studentId, subjectId);
-        long presentCount = attendanceRepository.countPresentByStudentAndSubject(studentId, subjectId, Attendance.AttendanceStatus.PRESENT);
-        
-        if (totalAttendance.isEmpty()) {
-            return 0.0;
+        return getAttendanceStats(studentId, subjectId).getPercentage();
+    }
+    
+    public AttendanceStats getAttendanceStats(Long studentId, Long subjectId) {
+        AttendanceStats stats = attendanceSummaryRepository.findStatsByStudentAndSubject(studentId, subjectId)
+            .orElseGet(() -> new AttendanceStats(studentId, subjectId, 0L, 0L, 0L, 0L));
+        return withPercentage(stats);
+    }
+    
+    public List<AttendanceStats> getAttendanceStatsByStudent(Long studentId) {
+        List<AttendanceStats> stats = attendanceSummaryRepository.findStatsByStudent(studentId);
+        stats.forEach(this::withPercentage);
+        return stats;
+    }
+    
+    public List<AttendanceStats> getAttendanceStatsBySubject(Long subjectId) {
+        List<AttendanceStats> stats = attendanceSummaryRepository.findStatsBySubject(subjectId);
+        stats.forEach(this::withPercentage);
+        return stats;
+    }
+    
+    private AttendanceStats withPercentage(AttendanceStats stats) {
+        if (stats.getTotal() == 0) {
+            stats.setPercentage(0.0);
+        } else {
+            double attended = stats.getPresent() + stats.getLate() * lateWeight;
+            stats.setPercentage(attended / stats.getTotal() * 100);
         }
-        
-        return (double) presentCount / totalAttendance.size() * 100;
+        return stats;
     }
 }
@@ -0,0 +1,111 @@
+package com.example.erp.service;
+
+import com.example.erp.dto.BulkAttendanceRequest;
+import com.example.erp.entity.Attendance;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps attendance_summary in step with the raw attendance table. All updates run in the
+ * caller's transaction, so a rolled back attendance change never leaves the counters behind.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class AttendanceSummaryService {
+    
+    private static final String UPSERT_SQL =
+        "INSERT INTO attendance_summary (student_id, subject_id, academic_year, present_count, late_count, absent_count, total_count, updated_at) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP) "
+        + "ON CONFLICT (student_id, subject_id, academic_year) DO UPDATE SET "
+        + "present_count = attendance_summary.present_count + EXCLUDED.present_count, "
+        + "late_count = attendance_summary.late_count + EXCLUDED.late_count, "
+        + "absent_count = attendance_summary.absent_count + EXCLUDED.absent_count, "
+        + "total_count = attendance_summary.total_count + EXCLUDED.total_count, "
+        + "updated_at = CURRENT_TIMESTAMP";
+    
+    private static final String REBUILD_SQL =
+        "INSERT INTO attendance_summary (student_id, subject_id, academic_year, present_count, late_count, absent_count, total_count, updated_at) "
+        + "SELECT a.student_id, a.subject_id, a.start_year || '-' || LPAD(CAST((a.start_year + 1) % 100 AS TEXT), 2, '0'), "
+        + "COUNT(*) FILTER (WHERE a.status = 'PRESENT'), COUNT(*) FILTER (WHERE a.status = 'LATE'), "
+        + "COUNT(*) FILTER (WHERE a.status = 'ABSENT'), COUNT(*), CURRENT_TIMESTAMP "
+        + "FROM (SELECT student_id, subject_id, status, "
+        + "CAST(EXTRACT(YEAR FROM date) AS INTEGER) - CASE WHEN EXTRACT(MONTH FROM date) >= ? THEN 0 ELSE 1 END AS start_year "
+        + "FROM attendance) a "
+        + "GROUP BY a.student_id, a.subject_id, a.start_year";
+    
+    // Transaction-scoped advisory lock held by the instance running the scheduled rebuild
+    private static final long REBUILD_LOCK_KEY = 0x41545453554D4DL;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final AcademicPeriodResolver academicPeriodResolver;
+    
+    public void recordMarked(Long studentId, Long subjectId, LocalDate date, Attendance.AttendanceStatus status) {
+        applyDelta(studentId, subjectId, date, status, 1);
+    }
+    
+    public void recordRemoved(Long studentId, Long subjectId, LocalDate date, Attendance.AttendanceStatus status) {
+        applyDelta(studentId, subjectId, date, status, -1);
+    }
+    
+    public void recordMarkedBatch(Long subjectId, LocalDate date, List<BulkAttendanceRequest.Entry> entries) {
+        String academicYear = academicPeriodResolver.academicYearOf(date);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            Attendance.AttendanceStatus status = entry.getStatus() != null
+                ? entry.getStatus() : Attendance.AttendanceStatus.PRESENT;
+            ps.setLong(1, entry.getStudentId());
+            ps.setLong(2, subjectId);
+            ps.setString(3, academicYear);
+            ps.setInt(4, status == Attendance.AttendanceStatus.PRESENT ? 1 : 0);
+            ps.setInt(5, status == Attendance.AttendanceStatus.LATE ? 1 : 0);
+            ps.setInt(6, status == Attendance.AttendanceStatus.ABSENT ? 1 : 0);
+            ps.setInt(7, 1);
+        });
+    }
+    
+    /**
+     * Recomputes every counter from the raw attendance table. Writers are blocked for the
+     * duration so no increment lands between the delete and the re-insert.
+     */
+    public int rebuild() {
+        long started = System.currentTimeMillis();
+        jdbcTemplate.execute("LOCK TABLE attendance_summary IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM attendance_summary");
+        int rows = jdbcTemplate.update(REBUILD_SQL, academicPeriodResolver.getStartMonth());
+        log.info("Rebuilt attendance_summary: {} rows in {} ms", rows, System.currentTimeMillis() - started);
+        return rows;
+    }
+    
+    /**
+     * Nightly rebuild. Every instance fires the schedule, but only the one that gets the advisory
+     * lock rebuilds; the others skip instead of blocking writers a second time.
+     */
+    @Scheduled(cron = "${app.attendance.summary.rebuild-cron:0 30 2 * * *}")
+    public void scheduledRebuild() {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, REBUILD_LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.info("Skipping attendance_summary rebuild; another instance is running it");
+            return;
+        }
+        rebuild();
+    }
+    
+    private void applyDelta(Long studentId, Long subjectId, LocalDate date, Attendance.AttendanceStatus status, int delta) {
+        jdbcTemplate.update(UPSERT_SQL,
+            studentId,
+            subjectId,
+            academicPeriodResolver.academicYearOf(date),
+            status == Attendance.AttendanceStatus.PRESENT ? delta : 0,
+            status == Attendance.AttendanceStatus.LATE ? delta : 0,
+            status == Attendance.AttendanceStatus.ABSENT ? delta : 0,
+            delta);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.erp.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * One audit event as it travels from {@link LogService} to an {@link AuditSink}.
+ */
+public record AuditEntry(Long userId, String action, String entityType, Long entityId, LocalDateTime timestamp) {
+}
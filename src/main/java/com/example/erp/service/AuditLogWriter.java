@@ -0,0 +1,190 @@
+package com.example.erp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background writer for audit rows. Callers put entries on a bounded queue; a single thread
+ * drains it and inserts the rows as one JDBC batch once {@code batch-size} entries are waiting
+ * or {@code flush-interval-ms} has passed. What happens when the queue is full is decided by
+ * {@code app.audit.overflow-policy}. Remaining entries are written on shutdown. If a batch fails
+ * its entries are retried one by one, so a bad entry costs only itself.
+ */
+@Slf4j
+@Component
+public class AuditLogWriter {
+    
+    public enum OverflowPolicy {
+        /** Wait for space in the queue */
+        BLOCK,
+        /** Discard the entry and count it in {@code audit.log.dropped} */
+        DROP,
+        /** Write the entry on the caller's thread */
+        SYNC
+    }
+    
+    private final LogTableAuditSink logTableAuditSink;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<AuditEntry> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final OverflowPolicy overflowPolicy;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+    private final Counter writtenCounter;
+    
+    private volatile boolean running;
+    private Thread worker;
+    
+    public AuditLogWriter(LogTableAuditSink logTableAuditSink,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.audit.queue-capacity:10000}") int queueCapacity,
+                          @Value("${app.audit.batch-size:500}") int batchSize,
+                          @Value("${app.audit.flush-interval-ms:200}") long flushIntervalMs,
+                          @Value("${app.audit.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy) {
+        this.logTableAuditSink = logTableAuditSink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.overflowPolicy = overflowPolicy;
+        this.droppedCounter = meterRegistry.counter("audit.log.dropped");
+        this.failedCounter = meterRegistry.counter("audit.log.failed");
+        this.writtenCounter = meterRegistry.counter("audit.log.written");
+        Gauge.builder("audit.log.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "audit-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+    
+    @PreDestroy
+    public void stop() {
+        // The worker notices within one flush interval; interrupting it could abort an in-flight batch
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Whatever the worker did not get to is written here so nothing is lost on shutdown
+        List<AuditEntry> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            write(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+    }
+    
+    public void submit(AuditEntry entry) {
+        if (!running) {
+            write(List.of(entry));
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    queue.put(entry);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    write(List.of(entry));
+                }
+            }
+            case DROP -> {
+                if (!queue.offer(entry)) {
+                    droppedCounter.increment();
+                }
+            }
+            case SYNC -> {
+                if (!queue.offer(entry)) {
+                    write(List.of(entry));
+                }
+            }
+        }
+    }
+    
+    public long getDroppedCount() {
+        return (long) droppedCounter.count();
+    }
+    
+    public int getQueueSize() {
+        return queue.size();
+    }
+    
+    private void run() {
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                AuditEntry first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                queue.drainTo(batch, batchSize - batch.size());
+                while (batch.size() < batchSize) {
+                    long wait = deadline - System.currentTimeMillis();
+                    if (wait <= 0) {
+                        break;
+                    }
+                    AuditEntry next = queue.poll(wait, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+    
+    // Audit failures must never reach the business operation that produced them
+    private void write(List<AuditEntry> entries) {
+        try {
+            // In a transaction so that a failed batch leaves no rows behind to be written twice
+            transactionTemplate.executeWithoutResult(status -> logTableAuditSink.write(entries));
+            writtenCounter.increment(entries.size());
+            return;
+        } catch (Exception e) {
+            if (entries.size() == 1) {
+                failedCounter.increment();
+                log.error("Failed to write audit log entry {}", entries.get(0), e);
+                return;
+            }
+            log.warn("Failed to write a batch of {} audit log entries; retrying them one by one", entries.size(), e);
+        }
+        for (AuditEntry entry : entries) {
+            try {
+                logTableAuditSink.write(List.of(entry));
+                writtenCounter.increment();
+            } catch (Exception e) {
+                failedCounter.increment();
+                log.error("Failed to write audit log entry {}", entry, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.erp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Durable audit path. {@link #append} writes events into {@code audit_outbox} on the caller's
+ * connection, so they commit or roll back with the business change. The relay claims unprocessed
+ * rows with {@code FOR UPDATE SKIP LOCKED}, passes them to every {@link AuditSink} and marks them
+ * processed in the same transaction; several instances can relay in parallel without
+ * handing the same row to the sinks twice.
+ *
+ * <p>If the sinks reject a batch, its rows are relayed one by one, each in its own transaction,
+ * so the rest still go through. A rejected row is tried again on later polls and after
+ * {@code max-attempts} is set aside as failed ({@code failed_at}, with {@code last_error}),
+ * counted in {@code audit.outbox.failed}, and no longer claimed.
+ */
+@Slf4j
+@Component
+public class AuditOutbox {
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO audit_outbox (user_id, action, entity_type, entity_id, created_at) VALUES (?, ?, ?, ?, ?)";
+    
+    private static final String CLAIM_SQL =
+        "SELECT id, user_id, action, entity_type, entity_id, created_at, attempts FROM audit_outbox "
+        + "WHERE processed_at IS NULL AND failed_at IS NULL ORDER BY id LIMIT :batchSize FOR UPDATE SKIP LOCKED";
+    
+    private static final String CLAIM_ROW_SQL =
+        "SELECT id FROM audit_outbox WHERE id = ? AND processed_at IS NULL AND failed_at IS NULL "
+        + "FOR UPDATE SKIP LOCKED";
+    
+    private static final RowMapper<OutboxRow> OUTBOX_ROW_MAPPER = (rs, rowNum) -> new OutboxRow(
+        rs.getLong("id"),
+        rs.getInt("attempts"),
+        new AuditEntry(
+            (Long) rs.getObject("user_id"),
+            rs.getString("action"),
+            rs.getString("entity_type"),
+            (Long) rs.getObject("entity_id"),
+            rs.getTimestamp("created_at").toLocalDateTime()));
+    
+    private static final String MARK_PROCESSED_SQL =
+        "UPDATE audit_outbox SET processed_at = CURRENT_TIMESTAMP WHERE id IN (:ids)";
+    
+    private static final String RECORD_FAILURE_SQL =
+        "UPDATE audit_outbox SET attempts = attempts + 1, last_error = :error, "
+        + "failed_at = CASE WHEN attempts + 1 >= :maxAttempts THEN CURRENT_TIMESTAMP END WHERE id = :id";
+    
+    private static final String PURGE_SQL =
+        "DELETE FROM audit_outbox WHERE processed_at < :cutoff";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<AuditSink> sinks;
+    private final Counter failedCounter;
+    
+    @Value("${app.audit.outbox.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${app.audit.outbox.retention-days:7}")
+    private int retentionDays;
+    
+    @Value("${app.audit.outbox.max-attempts:5}")
+    private int maxAttempts;
+    
+    public AuditOutbox(JdbcTemplate jdbcTemplate,
+                       NamedParameterJdbcTemplate namedJdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       List<AuditSink> sinks,
+                       MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sinks = sinks;
+        this.failedCounter = meterRegistry.counter("audit.outbox.failed");
+    }
+    
+    /**
+     * Appends events in the current transaction. Failures propagate so that a change is never
+     * committed without its audit record.
+     */
+    public void append(List<AuditEntry> entries) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setObject(1, entry.userId());
+            ps.setString(2, entry.action());
+            ps.setString(3, entry.entityType());
+            ps.setObject(4, entry.entityId());
+            ps.setTimestamp(5, Timestamp.valueOf(entry.timestamp()));
+        });
+    }
+    
+    @Scheduled(fixedDelayString = "${app.audit.outbox.poll-interval-ms:1000}")
+    public void scheduledRelay() {
+        try {
+            relay();
+        } catch (Exception e) {
+            // Claimed rows were rolled back and will be picked up on the next run
+            log.error("Failed to relay audit outbox", e);
+        }
+    }
+    
+    /**
+     * Relays batches until the outbox has no unclaimed rows left, or a batch had rows rejected;
+     * those are retried on the next run. Returns the number relayed.
+     */
+    public int relay() {
+        int relayed = 0;
+        boolean more;
+        do {
+            List<OutboxRow> claimed = new ArrayList<>();
+            int count;
+            try {
+                Integer batch = transactionTemplate.execute(status -> relayBatch(claimed));
+                count = batch != null ? batch : 0;
+                more = count == batchSize;
+            } catch (RuntimeException e) {
+                log.warn("Audit sinks rejected a batch of {} outbox rows; relaying them one by one", claimed.size(), e);
+                count = relayOneByOne(claimed);
+                more = false;
+            }
+            relayed += count;
+        } while (more);
+        return relayed;
+    }
+    
+    @Scheduled(cron = "${app.audit.outbox.purge-cron:0 0 3 * * *}")
+    public void purgeProcessed() {
+        try {
+            namedJdbcTemplate.update(PURGE_SQL, new MapSqlParameterSource("cutoff",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays))));
+        } catch (Exception e) {
+            log.error("Failed to purge audit outbox", e);
+        }
+    }
+    
+    private int relayBatch(List<OutboxRow> claimed) {
+        claimed.addAll(namedJdbcTemplate.query(CLAIM_SQL,
+            new MapSqlParameterSource("batchSize", batchSize), OUTBOX_ROW_MAPPER));
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        List<AuditEntry> entries = new ArrayList<>(claimed.size());
+        List<Long> ids = new ArrayList<>(claimed.size());
+        for (OutboxRow row : claimed) {
+            entries.add(row.entry());
+            ids.add(row.id());
+        }
+        writeToSinks(entries);
+        namedJdbcTemplate.update(MARK_PROCESSED_SQL, new MapSqlParameterSource("ids", ids));
+        return claimed.size();
+    }
+    
+    /**
+     * Relays each row of a rejected batch in its own transaction, so the rows the sinks accept
+     * go through and only the rejected ones are held back.
+     */
+    private int relayOneByOne(List<OutboxRow> rows) {
+        int relayed = 0;
+        for (OutboxRow row : rows) {
+            try {
+                Integer count = transactionTemplate.execute(status -> relayRow(row));
+                relayed += count != null ? count : 0;
+            } catch (RuntimeException e) {
+                transactionTemplate.executeWithoutResult(status -> recordFailure(row, e));
+            }
+        }
+        return relayed;
+    }
+    
+    private int relayRow(OutboxRow row) {
+        List<Long> claimed = jdbcTemplate.queryForList(CLAIM_ROW_SQL, Long.class, row.id());
+        if (claimed.isEmpty()) {
+            // Relayed or claimed by another instance in the meantime
+            return 0;
+        }
+        writeToSinks(List.of(row.entry()));
+        namedJdbcTemplate.update(MARK_PROCESSED_SQL, new MapSqlParameterSource("ids", claimed));
+        return 1;
+    }
+    
+    private void writeToSinks(List<AuditEntry> entries) {
+        for (AuditSink sink : sinks) {
+            sink.write(entries);
+        }
+    }
+    
+    private void recordFailure(OutboxRow row, RuntimeException e) {
+        String error = String.valueOf(e.getMessage());
+        namedJdbcTemplate.update(RECORD_FAILURE_SQL, new MapSqlParameterSource()
+            .addValue("id", row.id())
+            .addValue("error", error.length() > 1000 ? error.substring(0, 1000) : error)
+            .addValue("maxAttempts", maxAttempts));
+        int attempt = row.attempts() + 1;
+        if (attempt >= maxAttempts) {
+            failedCounter.increment();
+            log.error("Audit outbox row {} ({}) failed {} times and is set aside", row.id(), row.entry(), attempt, e);
+        } else {
+            log.warn("Audit outbox row {} ({}) was rejected; attempt {} of {}", row.id(), row.entry(), attempt, maxAttempts, e);
+        }
+    }
+    
+    private record OutboxRow(Long id, int attempts, AuditEntry entry) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.erp.service;
+
+import java.util.List;
+
+/**
+ * Destination for audit events. The outbox relay hands every claimed batch to all sinks
+ * inside the claiming transaction, so a sink that throws leaves the batch for a retry.
+ */
+public interface AuditSink {
+    
+    void write(List<AuditEntry> entries);
+}
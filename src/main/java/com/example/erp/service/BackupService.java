@@ -1,7 +1,10 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Backup;
 import com.example.erp.repository.BackupRepository;
+import com.example.erp.repository.KeysetPaginator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,10 +19,15 @@ import java.util.Optional;
 public class BackupService {
     
     private final BackupRepository backupRepository;
+    private final KeysetPaginator keysetPaginator;
     
     public List<Backup> getAllBackups() {
         return backupRepository.findAll();
     }
+
+    public CursorPage<Backup> getBackupsPage(PageQuery query) {
+        return keysetPaginator.findPage(Backup.class, query);
+    }
     
     public Optional<Backup> getBackupById(Long id) {
         return backupRepository.findById(id);
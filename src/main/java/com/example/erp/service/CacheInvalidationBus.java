@@ -0,0 +1,464 @@
+package com.example.erp.service;
+
+import com.example.erp.security.PrincipalCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the in-process caches of several instances consistent using Postgres LISTEN/NOTIFY on
+ * the application database. Writers call {@link #publish} and the entity type and id are sent
+ * once their transaction commits; every other instance evicts the matching entries. Local
+ * evictions are still done by {@code @CacheEvict} and {@link PrincipalCache}, so an instance
+ * ignores its own messages.
+ *
+ * <p>A single thread owns one dedicated connection, opened outside the pool, and both listens
+ * and sends on it. Messages are coalesced for {@code coalesce-ms} in both directions, and a type
+ * with more than {@code max-ids-per-type} pending ids is invalidated as a whole. Notifications
+ * sent while the connection is down are lost, so all caches are flushed whenever it is
+ * (re)established.
+ */
+@Component
+public class CacheInvalidationBus {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    
+    private static final String CHANNEL = "erp_cache_invalidation";
+    
+    // Postgres rejects NOTIFY payloads of 8000 bytes or more
+    private static final int MAX_PAYLOAD_LENGTH = 7500;
+    
+    public enum EntityType {
+        DEPARTMENT("departments", null),
+        SUBJECT("subjects", "subjectExists"),
+        FACULTY("faculty", "facultyExists"),
+        ACADEMIC_CALENDAR("academicCalendar", null),
+        STUDENT(null, "studentExists"),
+        EXAM(null, "examExists"),
+        /** Recompiled by {@link GradingSchemeRegistry} rather than a Spring cache */
+        GRADING_SCHEME(null, null),
+        /** Published grades, which the cached rank lists of {@link CohortRankingService} are built from */
+        GRADE("academicStanding", null),
+        /** Marks of an exam, keyed by exam id; see {@link MarksStatisticsService} */
+        MARKS("subjectStatistics", "examStatistics"),
+        /** Evicted from {@link ResultSnapshotCache}; keyed by student id */
+        RESULT_SNAPSHOT(null, null),
+        /** Evicted from {@link PrincipalCache} rather than a Spring cache */
+        USER(null, null);
+        
+        /** Caches holding lists or lookups keyed by something other than the id; always cleared */
+        private final String listCache;
+        /** Cache keyed by the entity id, if any */
+        private final String idCache;
+        
+        EntityType(String listCache, String idCache) {
+            this.listCache = listCache;
+            this.idCache = idCache;
+        }
+    }
+    
+    private final CacheManager cacheManager;
+    private final PrincipalCache principalCache;
+    private final CalendarIndex calendarIndex;
+    private final GradingSchemeRegistry gradingSchemeRegistry;
+    private final ResultSnapshotCache resultSnapshotCache;
+    private final DataSourceProperties dataSourceProperties;
+    private final boolean enabled;
+    private final long coalesceMs;
+    private final int maxIdsPerType;
+    private final long maxReconnectDelayMs;
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final Counter publishedCounter;
+    private final Counter receivedCounter;
+    private final Counter reconnectCounter;
+    
+    // Guarded by itself; filled by committing transactions, drained by the bus thread
+    private final Invalidations outgoing;
+    
+    private volatile boolean running;
+    private Thread worker;
+    
+    public CacheInvalidationBus(CacheManager cacheManager,
+                                PrincipalCache principalCache,
+                                CalendarIndex calendarIndex,
+                                GradingSchemeRegistry gradingSchemeRegistry,
+                                ResultSnapshotCache resultSnapshotCache,
+                                DataSourceProperties dataSourceProperties,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.cache.invalidation.enabled:true}") boolean enabled,
+                                @Value("${app.cache.invalidation.coalesce-ms:100}") long coalesceMs,
+                                @Value("${app.cache.invalidation.max-ids-per-type:200}") int maxIdsPerType,
+                                @Value("${app.cache.invalidation.max-reconnect-delay-ms:30000}") long maxReconnectDelayMs) {
+        this.cacheManager = cacheManager;
+        this.principalCache = principalCache;
+        this.calendarIndex = calendarIndex;
+        this.gradingSchemeRegistry = gradingSchemeRegistry;
+        this.resultSnapshotCache = resultSnapshotCache;
+        this.dataSourceProperties = dataSourceProperties;
+        String url = dataSourceProperties.determineUrl();
+        // LISTEN/NOTIFY is Postgres specific; other databases (e.g. H2 in development) run without it
+        this.enabled = enabled && url != null && url.startsWith("jdbc:postgresql:");
+        this.coalesceMs = coalesceMs;
+        this.maxIdsPerType = maxIdsPerType;
+        this.maxReconnectDelayMs = maxReconnectDelayMs;
+        this.outgoing = new Invalidations(maxIdsPerType);
+        this.publishedCounter = meterRegistry.counter("cache.invalidation.published");
+        this.receivedCounter = meterRegistry.counter("cache.invalidation.received");
+        this.reconnectCounter = meterRegistry.counter("cache.invalidation.reconnects");
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Cross-instance cache invalidation is disabled");
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "cache-invalidation-bus");
+        worker.setDaemon(true);
+        worker.start();
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (worker == null) {
+            return;
+        }
+        // The worker sends what is pending before it exits
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Tells the other instances that an entity changed. Inside a transaction the message is only
+     * queued once it commits, so a rollback publishes nothing.
+     */
+    public void publish(EntityType type, Long id) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(type, id);
+                }
+            });
+        } else {
+            enqueue(type, id);
+        }
+    }
+    
+    private void enqueue(EntityType type, Long id) {
+        synchronized (outgoing) {
+            outgoing.add(type, id);
+        }
+    }
+    
+    private void run() {
+        long reconnectDelayMs = 1000;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Anything published while we were not listening was missed
+                flushAll();
+                reconnectDelayMs = 1000;
+                listen(connection);
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                reconnectCounter.increment();
+                logger.warn("Cache invalidation connection lost, reconnecting in {} ms: {}",
+                    reconnectDelayMs, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                reconnectDelayMs = Math.min(reconnectDelayMs * 2, maxReconnectDelayMs);
+            }
+        }
+    }
+    
+    private void listen(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        Invalidations incoming = new Invalidations(maxIdsPerType);
+        long windowStart = 0;
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications((int) coalesceMs);
+            if (notifications != null) {
+                for (PGNotification notification : notifications) {
+                    receive(notification.getParameter(), incoming);
+                }
+            }
+            long now = System.currentTimeMillis();
+            boolean pending = !incoming.isEmpty();
+            synchronized (outgoing) {
+                pending |= !outgoing.isEmpty();
+            }
+            if (!pending) {
+                continue;
+            }
+            if (windowStart == 0) {
+                windowStart = now;
+            }
+            if (now - windowStart >= coalesceMs) {
+                send(connection);
+                apply(incoming);
+                incoming.clear();
+                windowStart = 0;
+            }
+        }
+        send(connection);
+    }
+    
+    private void receive(String payload, Invalidations incoming) {
+        int separator = payload.indexOf('|');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        receivedCounter.increment();
+        try {
+            incoming.decode(payload.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring malformed cache invalidation message: {}", payload);
+        }
+    }
+    
+    private void send(Connection connection) throws SQLException {
+        String prefix = nodeId + "|";
+        List<String> messages;
+        synchronized (outgoing) {
+            if (outgoing.isEmpty()) {
+                return;
+            }
+            messages = outgoing.encode(prefix, MAX_PAYLOAD_LENGTH);
+            outgoing.clear();
+        }
+        int sent = 0;
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            for (String message : messages) {
+                statement.setString(1, CHANNEL);
+                statement.setString(2, message);
+                statement.execute();
+                publishedCounter.increment();
+                sent++;
+            }
+        } catch (SQLException e) {
+            // Put back what was not sent; it goes out after the reconnect
+            synchronized (outgoing) {
+                for (String message : messages.subList(sent, messages.size())) {
+                    outgoing.decode(message.substring(prefix.length()));
+                }
+            }
+            throw e;
+        }
+    }
+    
+    private void apply(Invalidations incoming) {
+        for (EntityType type : EntityType.values()) {
+            if (incoming.isAll(type)) {
+                evictAll(type);
+            } else {
+                for (Long id : incoming.ids(type)) {
+                    evict(type, id);
+                }
+            }
+        }
+    }
+    
+    private void evict(EntityType type, Long id) {
+        if (type == EntityType.USER) {
+            principalCache.evict(id);
+            return;
+        }
+        if (type == EntityType.RESULT_SNAPSHOT) {
+            resultSnapshotCache.evict(id);
+            return;
+        }
+        if (type == EntityType.ACADEMIC_CALENDAR) {
+            calendarIndex.invalidate();
+        }
+        if (type == EntityType.GRADING_SCHEME) {
+            gradingSchemeRegistry.invalidate();
+        }
+        clear(type.listCache);
+        Cache idCache = type.idCache != null ? cacheManager.getCache(type.idCache) : null;
+        if (idCache != null) {
+            idCache.evict(id);
+        }
+    }
+    
+    private void evictAll(EntityType type) {
+        if (type == EntityType.USER) {
+            principalCache.clear();
+            return;
+        }
+        if (type == EntityType.RESULT_SNAPSHOT) {
+            resultSnapshotCache.clear();
+            return;
+        }
+        if (type == EntityType.ACADEMIC_CALENDAR) {
+            calendarIndex.invalidate();
+        }
+        if (type == EntityType.GRADING_SCHEME) {
+            gradingSchemeRegistry.invalidate();
+        }
+        clear(type.listCache);
+        clear(type.idCache);
+    }
+    
+    private void clear(String cacheName) {
+        Cache cache = cacheName != null ? cacheManager.getCache(cacheName) : null;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+    
+    private void flushAll() {
+        for (EntityType type : EntityType.values()) {
+            evictAll(type);
+        }
+    }
+    
+    /**
+     * Pending invalidations per entity type. A type past {@code maxIds} ids collapses to "all".
+     * Encoded as {@code TYPE:id,id;TYPE:*}.
+     */
+    static final class Invalidations {
+        
+        private final int maxIds;
+        private final Map<EntityType, Set<Long>> ids = new EnumMap<>(EntityType.class);
+        private final Set<EntityType> all = EnumSet.noneOf(EntityType.class);
+        
+        Invalidations(int maxIds) {
+            this.maxIds = maxIds;
+        }
+        
+        void add(EntityType type, Long id) {
+            if (all.contains(type)) {
+                return;
+            }
+            if (id == null) {
+                addAll(type);
+                return;
+            }
+            Set<Long> typeIds = ids.computeIfAbsent(type, t -> new LinkedHashSet<>());
+            typeIds.add(id);
+            if (typeIds.size() > maxIds) {
+                addAll(type);
+            }
+        }
+        
+        void addAll(EntityType type) {
+            all.add(type);
+            ids.remove(type);
+        }
+        
+        boolean isAll(EntityType type) {
+            return all.contains(type);
+        }
+        
+        Set<Long> ids(EntityType type) {
+            return ids.getOrDefault(type, Set.of());
+        }
+        
+        boolean isEmpty() {
+            return ids.isEmpty() && all.isEmpty();
+        }
+        
+        void clear() {
+            ids.clear();
+            all.clear();
+        }
+        
+        List<String> encode(String prefix, int maxLength) {
+            List<String> parts = new ArrayList<>();
+            for (EntityType type : all) {
+                parts.add(type.name() + ":*");
+            }
+            for (Map.Entry<EntityType, Set<Long>> entry : ids.entrySet()) {
+                StringBuilder part = new StringBuilder(entry.getKey().name()).append(':');
+                for (Long id : entry.getValue()) {
+                    if (part.length() > maxLength - prefix.length() - 24) {
+                        parts.add(part.substring(0, part.length() - 1));
+                        part.setLength(0);
+                        part.append(entry.getKey().name()).append(':');
+                    }
+                    part.append(id).append(',');
+                }
+                parts.add(part.substring(0, part.length() - 1));
+            }
+            List<String> messages = new ArrayList<>();
+            StringBuilder message = new StringBuilder(prefix);
+            for (String part : parts) {
+                if (message.length() > prefix.length() && message.length() + 1 + part.length() > maxLength) {
+                    messages.add(message.toString());
+                    message.setLength(0);
+                    message.append(prefix);
+                }
+                if (message.length() > prefix.length()) {
+                    message.append(';');
+                }
+                message.append(part);
+            }
+            messages.add(message.toString());
+            return messages;
+        }
+        
+        void decode(String body) {
+            for (String part : body.split(";")) {
+                int colon = part.indexOf(':');
+                if (colon < 0) {
+                    throw new IllegalArgumentException(part);
+                }
+                EntityType type = EntityType.valueOf(part.substring(0, colon));
+                String values = part.substring(colon + 1);
+                if (values.equals("*")) {
+                    addAll(type);
+                    continue;
+                }
+                for (String value : values.split(",")) {
+                    add(type, Long.valueOf(value));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.erp.service;
+
+import com.example.erp.entity.AcademicCalendar;
+import com.example.erp.repository.AcademicCalendarRepository;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of the academic calendar. Events are kept sorted by start date with the
+ * latest end date of every subtree, so the events overlapping a date range are found in
+ * O(log n + matches) and a multi-day event is returned for any range it touches. Holidays are
+ * also expanded into one bitmap per academic year, institution-wide and per department, so
+ * {@link #isWorkingDay} is a constant-time lookup.
+ *
+ * <p>The index is rebuilt from the table on first use after {@link #invalidate()}, which
+ * calendar writes call once their transaction commits and which other instances trigger
+ * through {@link CacheInvalidationBus}.
+ */
+@Component
+public class CalendarIndex {
+    
+    private final AcademicCalendarRepository academicCalendarRepository;
+    private final AcademicPeriodResolver academicPeriodResolver;
+    private final Set<DayOfWeek> weeklyOff;
+    private final AtomicLong generation = new AtomicLong();
+    
+    private volatile Snapshot snapshot;
+    
+    public CalendarIndex(AcademicCalendarRepository academicCalendarRepository,
+                         AcademicPeriodResolver academicPeriodResolver,
+                         @Value("${app.calendar.weekly-off:}") List<DayOfWeek> weeklyOff) {
+        this.academicCalendarRepository = academicCalendarRepository;
+        this.academicPeriodResolver = academicPeriodResolver;
+        this.weeklyOff = weeklyOff.isEmpty() ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(weeklyOff);
+    }
+    
+    /**
+     * Events whose span ({@code eventDate} to {@code endDate}, or the single day when there is
+     * no end date) overlaps {@code [from, to]}, ordered by start date.
+     */
+    public List<AcademicCalendar> findOverlapping(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return List.of();
+        }
+        Snapshot current = current();
+        List<AcademicCalendar> result = new ArrayList<>();
+        current.collect(0, current.events.length, from.toEpochDay(), to.toEpochDay(), result);
+        return result;
+    }
+    
+    public List<AcademicCalendar> findHolidays() {
+        return current().holidays;
+    }
+    
+    /**
+     * False when {@code date} falls on a configured weekly off day or inside a holiday that
+     * applies to the whole institution or to {@code departmentId}.
+     */
+    public boolean isWorkingDay(LocalDate date, Long departmentId) {
+        if (weeklyOff.contains(date.getDayOfWeek())) {
+            return false;
+        }
+        Snapshot current = current();
+        int year = startYearOf(date);
+        int day = dayOfYear(date, year);
+        if (isSet(current.institutionHolidays.get(year), day)) {
+            return false;
+        }
+        if (departmentId != null) {
+            Map<Integer, BitSet> departmentHolidays = current.departmentHolidays.get(departmentId);
+            return departmentHolidays == null || !isSet(departmentHolidays.get(year), day);
+        }
+        return true;
+    }
+    
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+    
+    /**
+     * Invalidates now and again when the current transaction completes, so a rebuild that read
+     * the table before the commit, or saw rows that were then rolled back, is not kept.
+     */
+    public void invalidateAfterCompletion() {
+        invalidate();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate();
+                }
+            });
+        }
+    }
+    
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && current.generation == generation.get()) {
+            return current;
+        }
+        return rebuild();
+    }
+    
+    private synchronized Snapshot rebuild() {
+        long expected = generation.get();
+        Snapshot current = snapshot;
+        if (current != null && current.generation == expected) {
+            return current;
+        }
+        Snapshot built = build(academicCalendarRepository.findAll(), expected);
+        // An invalidation that arrived while loading means the rows may already be stale
+        if (generation.get() == expected) {
+            snapshot = built;
+        }
+        return built;
+    }
+    
+    private Snapshot build(List<AcademicCalendar> all, long builtGeneration) {
+        // Copies, so the snapshot never shares instances with the caller's persistence context
+        List<AcademicCalendar> events = new ArrayList<>(all.size());
+        for (AcademicCalendar event : all) {
+            if (event.getEventDate() != null) {
+                AcademicCalendar copy = new AcademicCalendar();
+                BeanUtils.copyProperties(event, copy, "department", "createdByUser");
+                events.add(copy);
+            }
+        }
+        events.sort(Comparator.comparing(AcademicCalendar::getEventDate).thenComparing(AcademicCalendar::getId));
+        
+        int n = events.size();
+        long[] starts = new long[n];
+        long[] ends = new long[n];
+        List<AcademicCalendar> holidays = new ArrayList<>();
+        Map<Integer, BitSet> institutionHolidays = new HashMap<>();
+        Map<Long, Map<Integer, BitSet>> departmentHolidays = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            AcademicCalendar event = events.get(i);
+            starts[i] = event.getEventDate().toEpochDay();
+            ends[i] = Math.max(starts[i], event.getEndDate() != null ? event.getEndDate().toEpochDay() : starts[i]);
+            if (Boolean.TRUE.equals(event.getIsHoliday())) {
+                holidays.add(event);
+                Map<Integer, BitSet> target = event.getDepartmentId() == null
+                    ? institutionHolidays
+                    : departmentHolidays.computeIfAbsent(event.getDepartmentId(), id -> new HashMap<>());
+                markDays(target, LocalDate.ofEpochDay(starts[i]), LocalDate.ofEpochDay(ends[i]));
+            }
+        }
+        Snapshot built = new Snapshot(builtGeneration, events.toArray(new AcademicCalendar[0]), starts, ends,
+            new long[n], Collections.unmodifiableList(holidays), institutionHolidays, departmentHolidays);
+        built.buildMaxEnds(0, n);
+        return built;
+    }
+    
+    private void markDays(Map<Integer, BitSet> bitmaps, LocalDate from, LocalDate to) {
+        LocalDate day = from;
+        while (!day.isAfter(to)) {
+            int year = startYearOf(day);
+            LocalDate yearEnd = academicPeriodResolver.endOf(academicPeriodResolver.academicYearOf(day));
+            LocalDate last = to.isBefore(yearEnd) ? to : yearEnd;
+            bitmaps.computeIfAbsent(year, y -> new BitSet(366)).set(dayOfYear(day, year), dayOfYear(last, year) + 1);
+            day = last.plusDays(1);
+        }
+    }
+    
+    private int startYearOf(LocalDate date) {
+        return date.getMonthValue() >= academicPeriodResolver.getStartMonth() ? date.getYear() : date.getYear() - 1;
+    }
+    
+    private int dayOfYear(LocalDate date, int startYear) {
+        return (int) (date.toEpochDay() - LocalDate.of(startYear, academicPeriodResolver.getStartMonth(), 1).toEpochDay());
+    }
+    
+    private static boolean isSet(BitSet bitmap, int day) {
+        return bitmap != null && bitmap.get(day);
+    }
+    
+    /**
+     * Immutable index state. {@code events} is sorted by start and read as an implicit balanced
+     * tree whose root for the range {@code [lo, hi)} is its midpoint; {@code maxEnds[mid]} is the
+     * latest end date in that range.
+     */
+    private record Snapshot(long generation,
+                            AcademicCalendar[] events,
+                            long[] starts,
+                            long[] ends,
+                            long[] maxEnds,
+                            List<AcademicCalendar> holidays,
+                            Map<Integer, BitSet> institutionHolidays,
+                            Map<Long, Map<Integer, BitSet>> departmentHolidays) {
+        
+        long buildMaxEnds(int lo, int hi) {
+            if (lo >= hi) {
+                return Long.MIN_VALUE;
+            }
+            int mid = (lo + hi) >>> 1;
+            long max = Math.max(ends[mid], Math.max(buildMaxEnds(lo, mid), buildMaxEnds(mid + 1, hi)));
+            maxEnds[mid] = max;
+            return max;
+        }
+        
+        void collect(int lo, int hi, long from, long to, List<AcademicCalendar> result) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            // Nothing in this range ends on or after the start of the window
+            if (maxEnds[mid] < from) {
+                return;
+            }
+            collect(lo, mid, from, to, result);
+            // Everything from mid onwards starts after the window
+            if (starts[mid] > to) {
+                return;
+            }
+            if (ends[mid] >= from) {
+                result.add(events[mid]);
+            }
+            collect(mid + 1, hi, from, to, result);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.erp.service;
+
+import com.example.erp.dto.StandingEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rank lists of a batch or department for one semester. SGPA is the credit-weighted mean of
+ * the semester's published grade points; CGPA is the same over every semester up to it,
+ * counting only the latest attempt at each subject. A cohort is graded and ranked by a single
+ * window-function query, and the resulting list is cached until a grade is published, changed
+ * or deleted.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class CohortRankingService {
+    
+    public enum RankBy {
+        SGPA, CGPA
+    }
+    
+    private static final String RANKING_SQL =
+        "WITH attempts AS ("
+        + "SELECT gc.student_id, gc.academic_year, gc.semester, gc.grade_points, gc.credits, "
+        + "ROW_NUMBER() OVER (PARTITION BY gc.student_id, gc.subject_id "
+        + "ORDER BY gc.academic_year DESC, gc.semester DESC) AS attempt "
+        + "FROM grade_calculation gc "
+        + "JOIN student st ON st.id = gc.student_id "
+        + "JOIN users u ON u.user_id = st.user_id "
+        + "WHERE gc.status = 'PUBLISHED' AND gc.credits > 0 "
+        + "AND (gc.academic_year < :academicYear "
+        + "OR (gc.academic_year = :academicYear AND gc.semester <= :semester)) "
+        + "AND %s"
+        + "), totals AS ("
+        + "SELECT student_id, "
+        + "SUM(grade_points * credits) FILTER (WHERE academic_year = :academicYear AND semester = :semester) AS semester_points, "
+        + "SUM(credits) FILTER (WHERE academic_year = :academicYear AND semester = :semester) AS semester_credits, "
+        + "SUM(grade_points * credits) FILTER (WHERE attempt = 1) AS total_points, "
+        + "SUM(credits) FILTER (WHERE attempt = 1) AS total_credits "
+        + "FROM attempts GROUP BY student_id"
+        + "), scored AS ("
+        + "SELECT student_id, semester_credits, total_credits, "
+        + "ROUND(semester_points / semester_credits, 2) AS sgpa, "
+        + "ROUND(total_points / total_credits, 2) AS cgpa "
+        + "FROM totals WHERE semester_credits > 0"
+        + ") "
+        + "SELECT s.student_id, st.prn_number, u.name AS student_name, st.batch, u.department_id, "
+        + "s.sgpa, s.semester_credits, s.cgpa, s.total_credits, "
+        + "RANK() OVER (ORDER BY s.sgpa DESC) AS sgpa_rank, "
+        + "RANK() OVER (ORDER BY s.cgpa DESC) AS cgpa_rank, "
+        + "COUNT(*) OVER () AS cohort_size "
+        + "FROM scored s "
+        + "JOIN student st ON st.id = s.student_id "
+        + "JOIN users u ON u.user_id = st.user_id "
+        + "ORDER BY %s, s.student_id";
+    
+    private static final RowMapper<StandingEntry> ENTRY_MAPPER = (rs, rowNum) -> new StandingEntry(
+        rs.getLong("student_id"),
+        rs.getString("prn_number"),
+        rs.getString("student_name"),
+        rs.getString("batch"),
+        rs.getObject("department_id") != null ? rs.getLong("department_id") : null,
+        rs.getBigDecimal("sgpa"),
+        rs.getLong("semester_credits"),
+        rs.getBigDecimal("cgpa"),
+        rs.getLong("total_credits"),
+        rs.getLong("sgpa_rank"),
+        rs.getLong("cgpa_rank"),
+        rs.getLong("cohort_size"));
+    
+    private final NamedParameterJdbcTemplate jdbc;
+    
+    /** Students of the batch with published grades in the semester, best first */
+    @Cacheable(cacheNames = "academicStanding",
+               key = "'batch:' + #batch + ':' + #academicYear + ':' + #semester + ':' + #rankBy")
+    public List<StandingEntry> rankBatch(String batch, String academicYear, Integer semester, RankBy rankBy) {
+        return rank("st.batch = :cohort", batch, academicYear, semester, rankBy);
+    }
+    
+    /** Students of the department with published grades in the semester, best first */
+    @Cacheable(cacheNames = "academicStanding",
+               key = "'department:' + #departmentId + ':' + #academicYear + ':' + #semester + ':' + #rankBy")
+    public List<StandingEntry> rankDepartment(Long departmentId, String academicYear, Integer semester, RankBy rankBy) {
+        return rank("u.department_id = :cohort", departmentId, academicYear, semester, rankBy);
+    }
+    
+    private List<StandingEntry> rank(String cohortFilter, Object cohort, String academicYear, Integer semester,
+                                     RankBy rankBy) {
+        if (academicYear == null || semester == null) {
+            throw new RuntimeException("academicYear and semester are required");
+        }
+        String sql = String.format(RANKING_SQL, cohortFilter,
+            rankBy == RankBy.CGPA ? "cgpa_rank" : "sgpa_rank");
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("cohort", cohort)
+            .addValue("academicYear", academicYear)
+            .addValue("semester", semester);
+        // Cached and shared between callers, so it must not be modified
+        return Collections.unmodifiableList(jdbc.query(sql, params, ENTRY_MAPPER));
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.erp.service;
+
+import com.example.erp.entity.GradeCalculation;
+import com.example.erp.entity.GradingScheme;
+import com.example.erp.entity.GradingSchemeBand;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A {@link GradingScheme} compiled for evaluation. Marks are handled as longs in hundredths and
+ * weights in ten-thousandths, so a weighted total is exact in millionths and is then rounded
+ * HALF_UP to hundredths, giving the same result as the equivalent {@link BigDecimal} arithmetic.
+ * The grade band of every total between the lowest and the highest threshold is precomputed,
+ * so grading is one array lookup. The {@code long} methods allocate nothing; {@link #apply}
+ * only allocates the {@code BigDecimal} total it stores.
+ */
+public final class CompiledGradingScheme {
+    
+    private static final int WEIGHT_SCALE = 4;
+    private static final long WEIGHT_UNIT = 10_000;
+    /** Widest range of thresholds, in hundredths, the lookup table may cover */
+    private static final int MAX_TABLE_SIZE = 1_000_000;
+    
+    private final Long schemeId;
+    private final Long departmentId;
+    private final String effectiveFrom;
+    private final long internalWeight;
+    private final long externalWeight;
+    private final long assignmentWeight;
+    private final BigDecimal internalWeightDecimal;
+    private final BigDecimal externalWeightDecimal;
+    private final BigDecimal assignmentWeightDecimal;
+    /** Bands in ascending threshold order; index 0 also covers totals below its threshold */
+    private final String[] grades;
+    private final BigDecimal[] gradePoints;
+    private final long lowestThreshold;
+    private final long highestThreshold;
+    /** Band of the total {@code lowestThreshold + i}, for totals below the highest threshold */
+    private final short[] bandByTotal;
+    
+    private CompiledGradingScheme(GradingScheme scheme, List<GradingSchemeBand> bands) {
+        this.schemeId = scheme.getId();
+        this.departmentId = scheme.getDepartmentId();
+        this.effectiveFrom = scheme.getEffectiveFrom();
+        this.internalWeightDecimal = weight("internal", scheme.getInternalWeight());
+        this.externalWeightDecimal = weight("external", scheme.getExternalWeight());
+        this.assignmentWeightDecimal = weight("assignment", scheme.getAssignmentWeight());
+        this.internalWeight = internalWeightDecimal.unscaledValue().longValueExact();
+        this.externalWeight = externalWeightDecimal.unscaledValue().longValueExact();
+        this.assignmentWeight = assignmentWeightDecimal.unscaledValue().longValueExact();
+        
+        int n = bands.size();
+        this.grades = new String[n];
+        this.gradePoints = new BigDecimal[n];
+        long[] thresholds = new long[n];
+        for (int i = 0; i < n; i++) {
+            GradingSchemeBand band = bands.get(i);
+            thresholds[i] = toHundredths(band.getMinMarks());
+            grades[i] = band.getGrade();
+            gradePoints[i] = band.getGradePoints();
+            if (i > 0 && thresholds[i] == thresholds[i - 1]) {
+                throw new RuntimeException("Two grade bands start at " + band.getMinMarks());
+            }
+        }
+        this.lowestThreshold = thresholds[0];
+        this.highestThreshold = thresholds[n - 1];
+        long size = highestThreshold - lowestThreshold;
+        if (size > MAX_TABLE_SIZE) {
+            throw new RuntimeException("Grade band thresholds span more than " + MAX_TABLE_SIZE / 100 + " marks");
+        }
+        this.bandByTotal = new short[(int) size];
+        int band = 0;
+        for (int i = 0; i < size; i++) {
+            while (band + 1 < n && thresholds[band + 1] <= lowestThreshold + i) {
+                band++;
+            }
+            bandByTotal[i] = (short) band;
+        }
+    }
+    
+    /**
+     * Validates and compiles a scheme; fails when it has no bands, a weight with more than four
+     * decimals, a threshold with more than two or two bands with the same threshold.
+     */
+    public static CompiledGradingScheme compile(GradingScheme scheme) {
+        if (scheme.getBands() == null || scheme.getBands().isEmpty()) {
+            throw new RuntimeException("Grading scheme must have at least one grade band");
+        }
+        if (scheme.getBands().size() > Short.MAX_VALUE) {
+            throw new RuntimeException("Grading scheme has too many grade bands");
+        }
+        List<GradingSchemeBand> bands = new ArrayList<>(scheme.getBands());
+        for (GradingSchemeBand band : bands) {
+            if (band.getMinMarks() == null || band.getGrade() == null || band.getGradePoints() == null) {
+                throw new RuntimeException("Grade bands need minMarks, grade and gradePoints");
+            }
+        }
+        bands.sort(Comparator.comparing(GradingSchemeBand::getMinMarks));
+        return new CompiledGradingScheme(scheme, bands);
+    }
+    
+    /** Weighted total in hundredths of the component marks, each in hundredths */
+    public long totalHundredths(long internal, long external, long assignment) {
+        long exact = internal * internalWeight + external * externalWeight + assignment * assignmentWeight;
+        return divideHalfUp(exact, WEIGHT_UNIT);
+    }
+    
+    /** Index of the band a total (in hundredths) falls in */
+    public int band(long totalHundredths) {
+        if (totalHundredths >= highestThreshold) {
+            return grades.length - 1;
+        }
+        if (totalHundredths < lowestThreshold) {
+            return 0;
+        }
+        return bandByTotal[(int) (totalHundredths - lowestThreshold)];
+    }
+    
+    public String grade(int band) {
+        return grades[band];
+    }
+    
+    public BigDecimal gradePoints(int band) {
+        return gradePoints[band];
+    }
+    
+    /**
+     * Fills in total marks, grade and grade points from the component marks, treating missing
+     * components as zero. Marks with more than two decimals fall back to exact
+     * {@code BigDecimal} arithmetic, which rounds the same way.
+     */
+    public void apply(GradeCalculation gradeCalculation) {
+        BigDecimal internal = orZero(gradeCalculation.getInternalMarks());
+        BigDecimal external = orZero(gradeCalculation.getExternalMarks());
+        BigDecimal assignment = orZero(gradeCalculation.getAssignmentMarks());
+        long total;
+        if (isHundredths(internal) && isHundredths(external) && isHundredths(assignment)) {
+            total = totalHundredths(toHundredths(internal), toHundredths(external), toHundredths(assignment));
+        } else {
+            total = toHundredths(internal.multiply(internalWeightDecimal)
+                .add(external.multiply(externalWeightDecimal))
+                .add(assignment.multiply(assignmentWeightDecimal))
+                .setScale(2, RoundingMode.HALF_UP));
+        }
+        int band = band(total);
+        gradeCalculation.setTotalMarks(BigDecimal.valueOf(total, 2));
+        gradeCalculation.setGrade(grades[band]);
+        gradeCalculation.setGradePoints(gradePoints[band]);
+    }
+    
+    public Long getSchemeId() {
+        return schemeId;
+    }
+    
+    public Long getDepartmentId() {
+        return departmentId;
+    }
+    
+    public String getEffectiveFrom() {
+        return effectiveFrom;
+    }
+    
+    /** {@code dividend / divisor} rounded HALF_UP (ties away from zero); {@code divisor} is positive */
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+    
+    /** Exact value in hundredths of a number with at most two decimals */
+    static long toHundredths(BigDecimal value) {
+        try {
+            return value.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("Marks must have at most two decimals and fit in a long: " + value);
+        }
+    }
+    
+    private static boolean isHundredths(BigDecimal value) {
+        // Keeps the products of marks and weights well inside a long
+        return value.scale() <= 2 && value.abs().compareTo(BigDecimal.valueOf(1_000_000)) < 0;
+    }
+    
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+    
+    private static BigDecimal weight(String component, BigDecimal weight) {
+        if (weight == null || weight.signum() < 0) {
+            throw new RuntimeException("The " + component + " weight must be zero or positive");
+        }
+        try {
+            return weight.setScale(WEIGHT_SCALE, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("The " + component + " weight may have at most " + WEIGHT_SCALE + " decimals");
+        }
+    }
+}
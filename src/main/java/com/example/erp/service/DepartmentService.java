@@ -1,9 +1,13 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Department;
 import com.example.erp.repository.DepartmentRepository;
-import com.example.erp.repository.FacultyRepository;
+import com.example.erp.repository.KeysetPaginator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,17 +20,26 @@ import java.util.Optional;
 public class DepartmentService {
     
     private final DepartmentRepository departmentRepository;
+    private final KeysetPaginator keysetPaginator;
     private final LogService logService;
-    private final FacultyRepository facultyRepository;
+    private final ReferenceLookupService referenceLookupService;
+    private final CacheInvalidationBus cacheInvalidationBus;
     
+    @Cacheable(cacheNames = "departments", key = "'all'")
     public List<Department> getAllDepartments() {
         return departmentRepository.findAll();
     }
+
+    public CursorPage<Department> getDepartmentsPage(PageQuery query) {
+        return keysetPaginator.findPage(Department.class, query);
+    }
     
+    @Cacheable(cacheNames = "departments", key = "'id:' + #id")
     public Optional<Department> getDepartmentById(Long id) {
         return departmentRepository.findById(id);
     }
     
+    @Cacheable(cacheNames = "departments", key = "'name:' + #name")
     public Optional<Department> getDepartmentByName(String name) {
         return departmentRepository.findByName(name);
     }
@@ -35,6 +48,7 @@ public class DepartmentService {
         return departmentRepository.findByHeadId(headId);
     }
     
+    @CacheEvict(cacheNames = "departments", allEntries = true)
     public Department createDepartment(Department department) {
         // Validate name is provided
         if (department.getName() == null || department.getName().trim().isEmpty()) {
@@ -48,16 +62,18 @@ public class DepartmentService {
         
         // Validate head if provided
         if (department.getHeadId() != null) {
-            if (!facultyRepository.existsById(department.getHeadId())) {
+            if (!referenceLookupService.facultyExists(department.getHeadId())) {
                 throw new RuntimeException("Faculty not found with id: " + department.getHeadId());
             }
         }
         
         Department savedDepartment = departmentRepository.save(department);
         logService.logAction(null, "CREATE", "Department", savedDepartment.getId());
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.DEPARTMENT, savedDepartment.getId());
         return savedDepartment;
     }
     
+    @CacheEvict(cacheNames = "departments", allEntries = true)
     public Department updateDepartment(Long id, Department departmentDetails) {
         Department department = departmentRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Department not found with id: " + id));
@@ -73,7 +89,7 @@ public class DepartmentService {
         // Update head with validation
         if (departmentDetails.getHeadId() != null) {
             // Validate head exists in faculty table
-            if (!facultyRepository.existsById(departmentDetails.getHeadId())) {
+            if (!referenceLookupService.facultyExists(departmentDetails.getHeadId())) {
                 throw new RuntimeException("Faculty not found with id: " + departmentDetails.getHeadId());
             }
             department.setHeadId(departmentDetails.getHeadId());
@@ -81,15 +97,18 @@ public class DepartmentService {
         
         Department updatedDepartment = departmentRepository.save(department);
         logService.logAction(null, "UPDATE", "Department", id);
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.DEPARTMENT, id);
         return updatedDepartment;
     }
     
+    @CacheEvict(cacheNames = "departments", allEntries = true)
     public void deleteDepartment(Long id) {
         Department department = departmentRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Department not found with id: " + id));
         
         departmentRepository.delete(department);
         logService.logAction(null, "DELETE", "Department", id);
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.DEPARTMENT, id);
     }
     
     public List<Department> searchDepartmentsByName(String name) {
@@ -1,7 +1,10 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Enrollment;
 import com.example.erp.repository.EnrollmentRepository;
+import com.example.erp.repository.KeysetPaginator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,10 +19,15 @@ import java.util.Optional;
 public class EnrollmentService {
     
     private final EnrollmentRepository enrollmentRepository;
+    private final KeysetPaginator keysetPaginator;
     
     public List<Enrollment> getAllEnrollments() {
         return enrollmentRepository.findAll();
     }
+
+    public CursorPage<Enrollment> getEnrollmentsPage(PageQuery query) {
+        return keysetPaginator.findPage(Enrollment.class, query);
+    }
     
     public Optional<Enrollment> getEnrollmentById(Long id) {
         return enrollmentRepository.findById(id);
@@ -1,8 +1,12 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Exam;
 import com.example.erp.repository.ExamRepository;
+import com.example.erp.repository.KeysetPaginator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,11 +20,17 @@ import java.util.Optional;
 public class ExamService {
     
     private final ExamRepository examRepository;
+    private final KeysetPaginator keysetPaginator;
     private final LogService logService;
+    private final CacheInvalidationBus cacheInvalidationBus;
     
     public List<Exam> getAllExams() {
         return examRepository.findAll();
     }
+
+    public CursorPage<Exam> getExamsPage(PageQuery query) {
+        return keysetPaginator.findPage(Exam.class, query);
+    }
     
     public Optional<Exam> getExamById(Long id) {
         return examRepository.findById(id);
@@ -62,12 +72,14 @@ public class ExamService {
         return updatedExam;
     }
     
+    @CacheEvict(cacheNames = "examExists", key = "#id")
     public void deleteExam(Long id) {
         Exam exam = examRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Exam not found with id: " + id));
         
         examRepository.delete(exam);
         logService.logAction(null, "DELETE", "Exam", id);
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.EXAM, id);
     }
     
     public List<Exam> searchExamsByName(String name) {
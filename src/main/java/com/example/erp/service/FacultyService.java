@@ -1,8 +1,14 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Faculty;
 import com.example.erp.repository.FacultyRepository;
+import com.example.erp.repository.KeysetPaginator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,28 +21,40 @@ import java.util.Optional;
 public class FacultyService {
     
     private final FacultyRepository facultyRepository;
+    private final KeysetPaginator keysetPaginator;
     private final LogService logService;
+    private final CacheInvalidationBus cacheInvalidationBus;
     
+    @Cacheable(cacheNames = "faculty", key = "'all'")
     public List<Faculty> getAllFaculty() {
         return facultyRepository.findAll();
     }
+
+    public CursorPage<Faculty> getFacultyPage(PageQuery query) {
+        return keysetPaginator.findPage(Faculty.class, query);
+    }
     
+    @Cacheable(cacheNames = "faculty", key = "'id:' + #id")
     public Optional<Faculty> getFacultyById(Long id) {
         return facultyRepository.findById(id);
     }
     
+    @Cacheable(cacheNames = "faculty", key = "'user:' + #userId")
     public Optional<Faculty> getFacultyByUserId(Long userId) {
         return facultyRepository.findByUserId(userId);
     }
     
+    @Cacheable(cacheNames = "faculty", key = "'designation:' + #designation")
     public List<Faculty> getFacultyByDesignation(String designation) {
         return facultyRepository.findByDesignation(designation);
     }
     
+    @Cacheable(cacheNames = "faculty", key = "'department:' + #departmentId")
     public List<Faculty> getFacultyByDepartment(Long departmentId) {
         return facultyRepository.findByDepartmentId(departmentId);
     }
     
+    @CacheEvict(cacheNames = "faculty", allEntries = true)
     public Faculty createFaculty(Faculty faculty) {
         // Validate required fields
         if (faculty.getUserId() == null) {
@@ -50,9 +68,11 @@ public class FacultyService {
         
         Faculty savedFaculty = facultyRepository.save(faculty);
         logService.logAction(faculty.getUserId(), "CREATE", "Faculty", savedFaculty.getId());
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.FACULTY, savedFaculty.getId());
         return savedFaculty;
     }
     
+    @CacheEvict(cacheNames = "faculty", allEntries = true)
     public Faculty updateFaculty(Long id, Faculty facultyDetails) {
         Faculty faculty = facultyRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Faculty not found with id: " + id));
@@ -61,9 +81,14 @@ public class FacultyService {
         
         Faculty updatedFaculty = facultyRepository.save(faculty);
         logService.logAction(faculty.getUserId(), "UPDATE", "Faculty", id);
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.FACULTY, id);
         return updatedFaculty;
     }
     
+    @Caching(evict = {
+        @CacheEvict(cacheNames = "faculty", allEntries = true),
+        @CacheEvict(cacheNames = "facultyExists", key = "#id")
+    })
     public void deleteFaculty(Long id) {
         Faculty faculty = facultyRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Faculty not found with id: " + id));
@@ -75,6 +100,7 @@ public class FacultyService {
         
         facultyRepository.delete(faculty);
         logService.logAction(faculty.getUserId(), "DELETE", "Faculty", id);
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.FACULTY, id);
     }
     
     public List<Faculty> searchFacultyByDesignation(String designation) {
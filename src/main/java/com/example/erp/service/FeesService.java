@@ -1,14 +1,22 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
+import com.example.erp.entity.FeePayment;
 import com.example.erp.entity.Fees;
+import com.example.erp.repository.FeePaymentRepository;
 import com.example.erp.repository.FeesRepository;
-import com.example.erp.repository.StudentRepository;
+import com.example.erp.repository.KeysetPaginator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,13 +25,31 @@ import java.util.Optional;
 @Transactional
 public class FeesService {
     
+    private static final String CLAIM_SQL =
+        "INSERT INTO fee_payment (fee_id, amount, idempotency_key, paid_at) VALUES (?, ?, ?, ?) "
+        + "ON CONFLICT DO NOTHING";
+    
+    private static final String RECORD_CLAIMED_SQL =
+        "UPDATE fee_payment SET paid_amount_after = ?, payment_status_after = ? WHERE idempotency_key = ?";
+    
+    private static final String RECORD_SQL =
+        "INSERT INTO fee_payment (fee_id, amount, paid_at, paid_amount_after, payment_status_after) "
+        + "VALUES (?, ?, ?, ?, ?)";
+    
     private final FeesRepository feesRepository;
+    private final KeysetPaginator keysetPaginator;
     private final LogService logService;
-    private final StudentRepository studentRepository;
+    private final ReferenceLookupService referenceLookupService;
+    private final FeePaymentRepository feePaymentRepository;
+    private final JdbcTemplate jdbcTemplate;
     
     public List<Fees> getAllFees() {
         return feesRepository.findAll();
     }
+
+    public CursorPage<Fees> getFeesPage(PageQuery query) {
+        return keysetPaginator.findPage(Fees.class, query);
+    }
     
     public Optional<Fees> getFeesById(Long id) {
         return feesRepository.findById(id);
@@ -51,7 +77,7 @@ public class FeesService {
         }
         
         // Validate student exists
-        if (!studentRepository.existsById(fees.getStudentId())) {
+        if (!referenceLookupService.studentExists(fees.getStudentId())) {
             throw new RuntimeException("Student not found with id: " + fees.getStudentId());
         }
         
@@ -150,9 +176,20 @@ public class FeesService {
     }
     
     public Fees makePayment(Long id, BigDecimal paymentAmount) {
-        Fees fees = feesRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Fees not found with id: " + id));
-        
+        return makePayment(id, paymentAmount, null);
+    }
+    
+    /**
+     * Applies a payment with a single conditional update rather than read-modify-write, so
+     * concurrent payments on one fee cannot lose each other or overpay. Each payment is recorded
+     * in {@code fee_payment}.
+     *
+     * <p>With an {@code idempotencyKey}, a retry of a payment that went through returns the fee
+     * as it was right after that payment instead of paying again. The key is claimed before the
+     * fee is touched; a concurrent retry waits on the claim and then replays. A payment that
+     * fails releases its key, so it can be retried with the same one.
+     */
+    public Fees makePayment(Long id, BigDecimal paymentAmount, String idempotencyKey) {
         // Validate payment amount
         if (paymentAmount == null) {
             throw new RuntimeException("Payment amount is required");
@@ -162,34 +199,71 @@ public class FeesService {
             throw new RuntimeException("Payment amount must be greater than zero");
         }
         
-        // Check if fees are already fully paid
-        if (fees.getPaymentStatus() == Fees.PaymentStatus.PAID) {
-            throw new RuntimeException("Fees are already fully paid");
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > 255)) {
+            throw new RuntimeException("Idempotency key must be 1 to 255 characters");
         }
         
-        // Calculate new paid amount
-        BigDecimal currentPaidAmount = fees.getPaidAmount() != null ? fees.getPaidAmount() : BigDecimal.ZERO;
-        BigDecimal newPaidAmount = currentPaidAmount.add(paymentAmount);
+        LocalDateTime paidAt = LocalDateTime.now();
+        if (idempotencyKey != null && !claim(id, paymentAmount, idempotencyKey, paidAt)) {
+            return replay(id, paymentAmount, idempotencyKey);
+        }
+        
+        int applied = feesRepository.applyPayment(id, paymentAmount,
+            Fees.PaymentStatus.PAID, Fees.PaymentStatus.PARTIAL);
+        Fees fees = feesRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Fees not found with id: " + id));
         
-        // Check for overpayment
-        if (newPaidAmount.compareTo(fees.getAmount()) > 0) {
+        if (applied == 0) {
+            // Check if fees are already fully paid
+            if (fees.getPaymentStatus() == Fees.PaymentStatus.PAID) {
+                throw new RuntimeException("Fees are already fully paid");
+            }
+            BigDecimal currentPaidAmount = fees.getPaidAmount() != null ? fees.getPaidAmount() : BigDecimal.ZERO;
             throw new RuntimeException("Payment amount (" + paymentAmount + 
                 ") would result in overpayment. Remaining amount: " + 
                 fees.getAmount().subtract(currentPaidAmount));
         }
         
-        fees.setPaidAmount(newPaidAmount);
-        
-        // Update payment status based on amount paid
-        if (newPaidAmount.compareTo(fees.getAmount()) >= 0) {
-            fees.setPaymentStatus(Fees.PaymentStatus.PAID);
-        } else if (newPaidAmount.compareTo(BigDecimal.ZERO) > 0) {
-            fees.setPaymentStatus(Fees.PaymentStatus.PARTIAL);
+        if (idempotencyKey != null) {
+            jdbcTemplate.update(RECORD_CLAIMED_SQL, fees.getPaidAmount(), fees.getPaymentStatus().name(), idempotencyKey);
+        } else {
+            jdbcTemplate.update(RECORD_SQL, id, paymentAmount, Timestamp.valueOf(paidAt),
+                fees.getPaidAmount(), fees.getPaymentStatus().name());
         }
-        
-        Fees updatedFees = feesRepository.save(fees);
         logService.logAction(null, "PAYMENT", "Fees", id);
-        return updatedFees;
+        return fees;
+    }
+    
+    /** Returns false if the key is already taken, waiting for an uncommitted claim to settle */
+    private boolean claim(Long id, BigDecimal paymentAmount, String idempotencyKey, LocalDateTime paidAt) {
+        try {
+            return jdbcTemplate.update(CLAIM_SQL, id, paymentAmount, idempotencyKey, Timestamp.valueOf(paidAt)) > 0;
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Fees not found with id: " + id);
+        }
+    }
+    
+    private Fees replay(Long id, BigDecimal paymentAmount, String idempotencyKey) {
+        FeePayment payment = feePaymentRepository.findByIdempotencyKey(idempotencyKey)
+            .orElseThrow(() -> new RuntimeException("Payment not found for idempotency key: " + idempotencyKey));
+        if (!payment.getFeeId().equals(id) || payment.getAmount().compareTo(paymentAmount) != 0) {
+            throw new RuntimeException("Idempotency key was already used for a different payment");
+        }
+        if (payment.getPaidAmountAfter() == null) {
+            throw new RuntimeException("A payment with this idempotency key is still being processed");
+        }
+        Fees current = feesRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Fees not found with id: " + id));
+        
+        Fees recorded = new Fees();
+        recorded.setId(current.getId());
+        recorded.setStudentId(current.getStudentId());
+        recorded.setAmount(current.getAmount());
+        recorded.setDueDate(current.getDueDate());
+        recorded.setVersion(current.getVersion());
+        recorded.setPaidAmount(payment.getPaidAmountAfter());
+        recorded.setPaymentStatus(payment.getPaymentStatusAfter());
+        return recorded;
     }
     
     public void deleteFees(Long id) {
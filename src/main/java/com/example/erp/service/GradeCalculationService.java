@@ -1,15 +1,23 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.BulkStatusChange;
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.GradeCalculation;
+import com.example.erp.entity.Subject;
 import com.example.erp.repository.GradeCalculationRepository;
+import com.example.erp.repository.KeysetPaginator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -18,10 +26,19 @@ import java.util.Optional;
 public class GradeCalculationService {
     
     private final GradeCalculationRepository gradeCalculationRepository;
+    private final KeysetPaginator keysetPaginator;
+    private final SubjectService subjectService;
+    private final GradingSchemeRegistry gradingSchemeRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ResultSnapshotService resultSnapshotService;
     
     public List<GradeCalculation> getAllGradeCalculations() {
         return gradeCalculationRepository.findAll();
     }
+
+    public CursorPage<GradeCalculation> getGradeCalculationsPage(PageQuery query) {
+        return keysetPaginator.findPage(GradeCalculation.class, query);
+    }
     
     public Optional<GradeCalculation> getGradeCalculationById(Long id) {
         return gradeCalculationRepository.findById(id);
@@ -35,8 +52,10 @@ public class GradeCalculationService {
         return gradeCalculationRepository.findBySubjectId(subjectId);
     }
     
+    /** Credit-weighted mean of the published grade points of the academic year */
     public Double calculateGPA(Long studentId, String academicYear) {
-        return gradeCalculationRepository.calculateGPA(studentId, academicYear, GradeCalculation.GradeStatus.PUBLISHED);
+        BigDecimal gpa = gradeCalculationRepository.calculateGPA(studentId, academicYear, GradeCalculation.GradeStatus.PUBLISHED);
+        return gpa != null ? gpa.setScale(2, RoundingMode.HALF_UP).doubleValue() : null;
     }
     
     public GradeCalculation createGradeCalculation(GradeCalculation gradeCalculation) {
@@ -46,6 +65,9 @@ public class GradeCalculationService {
         return gradeCalculationRepository.save(gradeCalculation);
     }
     
+    // Only published grades count towards SGPA, CGPA and ranks
+    @CacheEvict(cacheNames = "academicStanding", allEntries = true,
+                condition = "#result.status == T(com.example.erp.entity.GradeCalculation.GradeStatus).PUBLISHED")
     public GradeCalculation updateGradeCalculation(Long id, GradeCalculation gradeDetails) {
         GradeCalculation gradeCalculation = gradeCalculationRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Grade calculation not found with id: " + id));
@@ -69,73 +91,98 @@ public class GradeCalculationService {
         calculateTotalMarksAndGrade(gradeCalculation);
         gradeCalculation.setCalculatedAt(LocalDateTime.now());
         
-        return gradeCalculationRepository.save(gradeCalculation);
+        if (gradeCalculation.getStatus() != GradeCalculation.GradeStatus.PUBLISHED) {
+            return gradeCalculationRepository.save(gradeCalculation);
+        }
+        GradeCalculation updatedGrade = gradeCalculationRepository.saveAndFlush(gradeCalculation);
+        resultSnapshotService.regenerate(List.of(updatedGrade.getStudentId()));
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.GRADE, id);
+        return updatedGrade;
     }
     
+    @CacheEvict(cacheNames = "academicStanding", allEntries = true)
     public void deleteGradeCalculation(Long id) {
-        if (!gradeCalculationRepository.existsById(id)) {
-            throw new RuntimeException("Grade calculation not found with id: " + id);
+        GradeCalculation gradeCalculation = gradeCalculationRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Grade calculation not found with id: " + id));
+        gradeCalculationRepository.delete(gradeCalculation);
+        if (gradeCalculation.getStatus() == GradeCalculation.GradeStatus.PUBLISHED) {
+            gradeCalculationRepository.flush();
+            resultSnapshotService.regenerate(List.of(gradeCalculation.getStudentId()));
         }
-        gradeCalculationRepository.deleteById(id);
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.GRADE, id);
     }
     
     public GradeCalculation approveGrade(Long id) {
-        GradeCalculation gradeCalculation = gradeCalculationRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Grade calculation not found with id: " + id));
-        
-        gradeCalculation.setStatus(GradeCalculation.GradeStatus.APPROVED);
-        return gradeCalculationRepository.save(gradeCalculation);
+        return transition(id, GradeCalculation.GradeStatus.CALCULATED, GradeCalculation.GradeStatus.APPROVED);
     }
     
+    @CacheEvict(cacheNames = "academicStanding", allEntries = true)
     public GradeCalculation publishGrade(Long id) {
-        GradeCalculation gradeCalculation = gradeCalculationRepository.findById(id)
+        GradeCalculation publishedGrade = transition(id, GradeCalculation.GradeStatus.APPROVED, GradeCalculation.GradeStatus.PUBLISHED);
+        resultSnapshotService.regenerate(List.of(publishedGrade.getStudentId()));
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.GRADE, id);
+        return publishedGrade;
+    }
+    
+    /**
+     * Approves every CALCULATED grade of the department's subjects for the semester with one
+     * UPDATE; grades in any other status are left as they are and reported in the counts.
+     */
+    public BulkStatusChange approveSemester(Long departmentId, String academicYear, Integer semester) {
+        return transitionSemester(departmentId, academicYear, semester,
+            GradeCalculation.GradeStatus.CALCULATED, GradeCalculation.GradeStatus.APPROVED);
+    }
+    
+    /**
+     * Publishes every APPROVED grade of the department's subjects for the semester with one
+     * UPDATE and writes new result snapshots for the students concerned in the same transaction.
+     */
+    @CacheEvict(cacheNames = "academicStanding", allEntries = true)
+    public BulkStatusChange publishSemester(Long departmentId, String academicYear, Integer semester) {
+        BulkStatusChange change = transitionSemester(departmentId, academicYear, semester,
+            GradeCalculation.GradeStatus.APPROVED, GradeCalculation.GradeStatus.PUBLISHED);
+        if (change.getUpdated() > 0) {
+            List<Long> studentIds = gradeCalculationRepository.findStudentIdsForDepartmentSemester(
+                departmentId, academicYear, semester, GradeCalculation.GradeStatus.PUBLISHED);
+            change.setSnapshots(resultSnapshotService.regenerate(studentIds));
+            cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.GRADE, null);
+        }
+        return change;
+    }
+    
+    private GradeCalculation transition(Long id, GradeCalculation.GradeStatus from, GradeCalculation.GradeStatus to) {
+        // Guarded in the UPDATE itself, so concurrent single and bulk transitions cannot move a grade backwards
+        if (gradeCalculationRepository.transition(id, from, to) == 0) {
+            GradeCalculation gradeCalculation = gradeCalculationRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Grade calculation not found with id: " + id));
+            throw new RuntimeException("Only " + from + " grades can be " + to.name().toLowerCase()
+                + "; grade " + id + " is " + gradeCalculation.getStatus());
+        }
+        return gradeCalculationRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Grade calculation not found with id: " + id));
-        
-        gradeCalculation.setStatus(GradeCalculation.GradeStatus.PUBLISHED);
-        return gradeCalculationRepository.save(gradeCalculation);
     }
     
-    private void calculateTotalMarksAndGrade(GradeCalculation gradeCalculation) {
-        BigDecimal internal = gradeCalculation.getInternalMarks() != null ? gradeCalculation.getInternalMarks() : BigDecimal.ZERO;
-        BigDecimal external = gradeCalculation.getExternalMarks() != null ? gradeCalculation.getExternalMarks() : BigDecimal.ZERO;
-        BigDecimal assignment = gradeCalculation.getAssignmentMarks() != null ? gradeCalculation.getAssignmentMarks() : BigDecimal.ZERO;
-        
-        // Calculate total marks (internal 30% + external 60% + assignment 10%)
-        BigDecimal totalMarks = internal.multiply(new BigDecimal("0.30"))
-            .add(external.multiply(new BigDecimal("0.60")))
-            .add(assignment.multiply(new BigDecimal("0.10")))
-            .setScale(2, RoundingMode.HALF_UP);
-        
-        gradeCalculation.setTotalMarks(totalMarks);
-        
-        // Calculate grade and grade points based on total marks
-        String grade;
-        BigDecimal gradePoints;
-        
-        if (totalMarks.compareTo(new BigDecimal("90")) >= 0) {
-            grade = "A+";
-            gradePoints = new BigDecimal("10.00");
-        } else if (totalMarks.compareTo(new BigDecimal("80")) >= 0) {
-            grade = "A";
-            gradePoints = new BigDecimal("9.00");
-        } else if (totalMarks.compareTo(new BigDecimal("70")) >= 0) {
-            grade = "B+";
-            gradePoints = new BigDecimal("8.00");
-        } else if (totalMarks.compareTo(new BigDecimal("60")) >= 0) {
-            grade = "B";
-            gradePoints = new BigDecimal("7.00");
-        } else if (totalMarks.compareTo(new BigDecimal("50")) >= 0) {
-            grade = "C";
-            gradePoints = new BigDecimal("6.00");
-        } else if (totalMarks.compareTo(new BigDecimal("40")) >= 0) {
-            grade = "D";
-            gradePoints = new BigDecimal("5.00");
-        } else {
-            grade = "F";
-            gradePoints = new BigDecimal("0.00");
+    private BulkStatusChange transitionSemester(Long departmentId, String academicYear, Integer semester,
+                                                GradeCalculation.GradeStatus from, GradeCalculation.GradeStatus to) {
+        if (departmentId == null || academicYear == null || semester == null) {
+            throw new RuntimeException("departmentId, academicYear and semester are required");
         }
-        
-        gradeCalculation.setGrade(grade);
-        gradeCalculation.setGradePoints(gradePoints);
+        int updated = gradeCalculationRepository.transitionDepartmentSemester(departmentId, academicYear, semester, from, to);
+        Map<GradeCalculation.GradeStatus, Long> statusCounts = new EnumMap<>(GradeCalculation.GradeStatus.class);
+        for (Object[] row : gradeCalculationRepository.countByStatusForDepartmentSemester(departmentId, academicYear, semester)) {
+            statusCounts.put((GradeCalculation.GradeStatus) row[0], (Long) row[1]);
+        }
+        return new BulkStatusChange(departmentId, academicYear, semester, to, updated, statusCounts, 0);
+    }
+    
+    /**
+     * Fills in total marks, grade and grade points with the grading scheme of the subject's
+     * department for the grade's academic year; see {@link GradingSchemeRegistry}.
+     */
+    private void calculateTotalMarksAndGrade(GradeCalculation gradeCalculation) {
+        Long departmentId = gradeCalculation.getSubjectId() != null
+            ? subjectService.getSubjectById(gradeCalculation.getSubjectId()).map(Subject::getDepartmentId).orElse(null)
+            : null;
+        gradingSchemeRegistry.schemeFor(departmentId, gradeCalculation.getAcademicYear()).apply(gradeCalculation);
     }
 }
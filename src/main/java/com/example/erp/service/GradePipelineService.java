@@ -0,0 +1,400 @@
+package com.example.erp.service;
+
+import com.example.erp.entity.GradeCalculation;
+import com.example.erp.entity.GradeRun;
+import com.example.erp.entity.Subject;
+import com.example.erp.repository.GradeRunRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes the grade_calculation rows of a whole subject, academic year and semester from the
+ * marks of the subject's exams and from attendance_summary. Enrolled students are read in
+ * student_id order, one chunk per query; each chunk is graded in parallel with the grading
+ * scheme of the subject's department, in scaled integers, and upserted in one JDBC batch, in
+ * the same transaction that advances the run's checkpoint. The scheme is resolved once, so a
+ * run grades every student under the same rules. A run that failed, or whose
+ * worker stopped sending heartbeats, resumes after its checkpoint when started again.
+ *
+ * <p>Exams have no type, so they are assigned to a component by name: names containing one of
+ * {@code app.grading.components.external} count as external, then
+ * {@code app.grading.components.assignment} as assignment, and everything else as internal.
+ * Each component is the percentage scored over all of its exams. Grades that were already
+ * approved or published are never overwritten.
+ *
+ * <p>Not {@code @Transactional}: the run claim commits on its own and every chunk is its own
+ * transaction, so progress is visible while the run is going.
+ */
+@Service
+@Slf4j
+public class GradePipelineService {
+    
+    /** Percentage of a component without any marks; stored as NULL and graded as zero */
+    private static final long NO_MARKS = Long.MIN_VALUE;
+    
+    private static final String ENROLLED_FILTER =
+        "subject_id = ? AND academic_year = ? AND semester = ? AND status <> 'DROPPED'";
+    
+    private static final String CLAIM_SQL =
+        "INSERT INTO grade_run (subject_id, academic_year, semester, status, total_students, started_by, started_at, updated_at) "
+        + "VALUES (?, ?, ?, 'RUNNING', ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) "
+        + "ON CONFLICT (subject_id, academic_year, semester) DO UPDATE SET "
+        + "status = 'RUNNING', total_students = EXCLUDED.total_students, started_by = EXCLUDED.started_by, "
+        // A completed run starts over; a failed or abandoned one keeps its checkpoint
+        + "processed_students = CASE WHEN grade_run.status = 'COMPLETED' THEN 0 ELSE grade_run.processed_students END, "
+        + "skipped_students = CASE WHEN grade_run.status = 'COMPLETED' THEN 0 ELSE grade_run.skipped_students END, "
+        + "last_student_id = CASE WHEN grade_run.status = 'COMPLETED' THEN 0 ELSE grade_run.last_student_id END, "
+        + "started_at = CASE WHEN grade_run.status = 'COMPLETED' THEN CURRENT_TIMESTAMP ELSE grade_run.started_at END, "
+        + "updated_at = CURRENT_TIMESTAMP, finished_at = NULL, error = NULL "
+        + "WHERE grade_run.status <> 'RUNNING' OR grade_run.updated_at < ? "
+        + "RETURNING id";
+    
+    private static final String CHUNK_SQL =
+        "SELECT e.student_id, e.credits, a.present_count, a.late_count, a.total_count, "
+        + "m.exam_id, m.marks_obtained, m.total_marks "
+        + "FROM (SELECT student_id, credits FROM enrollment WHERE " + ENROLLED_FILTER + " AND student_id > ? "
+        + "ORDER BY student_id LIMIT ?) e "
+        + "LEFT JOIN attendance_summary a ON a.student_id = e.student_id AND a.subject_id = ? AND a.academic_year = ? "
+        + "LEFT JOIN marks m ON m.student_id = e.student_id "
+        + "AND m.exam_id IN (SELECT x.id FROM exam x WHERE x.subject_id = ? AND x.date BETWEEN ? AND ?) "
+        + "ORDER BY e.student_id";
+    
+    private static final String UPSERT_SQL =
+        "INSERT INTO grade_calculation (student_id, subject_id, academic_year, semester, internal_marks, external_marks, "
+        + "assignment_marks, attendance_percentage, total_marks, grade, grade_points, credits, status, calculated_at, calculated_by) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'CALCULATED', CURRENT_TIMESTAMP, ?) "
+        + "ON CONFLICT (student_id, subject_id, academic_year, semester) DO UPDATE SET "
+        + "internal_marks = EXCLUDED.internal_marks, external_marks = EXCLUDED.external_marks, "
+        + "assignment_marks = EXCLUDED.assignment_marks, attendance_percentage = EXCLUDED.attendance_percentage, "
+        + "total_marks = EXCLUDED.total_marks, grade = EXCLUDED.grade, grade_points = EXCLUDED.grade_points, "
+        + "credits = EXCLUDED.credits, status = 'CALCULATED', calculated_at = EXCLUDED.calculated_at, "
+        + "calculated_by = EXCLUDED.calculated_by "
+        + "WHERE grade_calculation.status IN ('PENDING', 'CALCULATED')";
+    
+    // Only moves from the checkpoint this worker last saw, so a run taken over by another worker stops here
+    private static final String CHECKPOINT_SQL =
+        "UPDATE grade_run SET last_student_id = ?, processed_students = processed_students + ?, "
+        + "skipped_students = skipped_students + ?, updated_at = CURRENT_TIMESTAMP "
+        + "WHERE id = ? AND status = 'RUNNING' AND last_student_id = ?";
+    
+    private static final String COMPLETE_SQL =
+        "UPDATE grade_run SET status = 'COMPLETED', finished_at = CURRENT_TIMESTAMP, updated_at = CURRENT_TIMESTAMP "
+        + "WHERE id = ? AND status = 'RUNNING' AND last_student_id = ?";
+    
+    private static final String FAIL_SQL =
+        "UPDATE grade_run SET status = 'FAILED', error = ?, finished_at = CURRENT_TIMESTAMP, updated_at = CURRENT_TIMESTAMP "
+        + "WHERE id = ? AND status = 'RUNNING' AND last_student_id = ?";
+    
+    private enum Component {
+        INTERNAL, EXTERNAL, ASSIGNMENT
+    }
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final GradeRunRepository gradeRunRepository;
+    private final AcademicPeriodResolver academicPeriodResolver;
+    private final SubjectService subjectService;
+    private final GradingSchemeRegistry gradingSchemeRegistry;
+    private final ExecutorService executor;
+    
+    @Value("${app.grading.pipeline.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${app.grading.pipeline.stale-after-ms:300000}")
+    private long staleAfterMs;
+    
+    @Value("${app.grading.components.external:final,end sem,end-sem,external}")
+    private List<String> externalPatterns;
+    
+    @Value("${app.grading.components.assignment:assignment,project,lab,practical}")
+    private List<String> assignmentPatterns;
+    
+    @Value("${app.attendance.late-weight:1.0}")
+    private double lateWeight;
+    
+    public GradePipelineService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                GradeRunRepository gradeRunRepository,
+                                AcademicPeriodResolver academicPeriodResolver,
+                                SubjectService subjectService,
+                                GradingSchemeRegistry gradingSchemeRegistry,
+                                @Value("${app.grading.pipeline.threads:2}") int threads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.gradeRunRepository = gradeRunRepository;
+        this.academicPeriodResolver = academicPeriodResolver;
+        this.subjectService = subjectService;
+        this.gradingSchemeRegistry = gradingSchemeRegistry;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "grade-pipeline-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+    
+    /**
+     * Starts, restarts or resumes the run for a subject, academic year and semester and
+     * processes it in the background; the returned run is its state when claimed.
+     */
+    public GradeRun startRun(Long subjectId, String academicYear, Integer semester, Long startedBy) {
+        Integer enrolled = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM enrollment WHERE " + ENROLLED_FILTER, Integer.class, subjectId, academicYear, semester);
+        if (enrolled == null || enrolled == 0) {
+            throw new RuntimeException("No students enrolled in subject " + subjectId
+                + " for " + academicYear + " semester " + semester);
+        }
+        Timestamp staleBefore = Timestamp.valueOf(LocalDateTime.now().minusNanos(staleAfterMs * 1_000_000));
+        List<Long> claimed = jdbcTemplate.queryForList(CLAIM_SQL, Long.class,
+            subjectId, academicYear, semester, enrolled, startedBy, staleBefore);
+        if (claimed.isEmpty()) {
+            throw new RuntimeException("A grade run for subject " + subjectId + ", " + academicYear
+                + " semester " + semester + " is already in progress");
+        }
+        GradeRun run = gradeRunRepository.findById(claimed.get(0))
+            .orElseThrow(() -> new RuntimeException("Grade run not found with id: " + claimed.get(0)));
+        executor.execute(() -> process(run));
+        return run;
+    }
+    
+    public Optional<GradeRun> getRun(Long id) {
+        return gradeRunRepository.findById(id);
+    }
+    
+    public List<GradeRun> getRunsBySubject(Long subjectId) {
+        return gradeRunRepository.findBySubjectIdOrderByStartedAtDesc(subjectId);
+    }
+    
+    private void process(GradeRun run) {
+        long started = System.currentTimeMillis();
+        long checkpoint = run.getLastStudentId();
+        try {
+            LocalDate from = academicPeriodResolver.startOf(run.getAcademicYear());
+            LocalDate to = academicPeriodResolver.endOf(run.getAcademicYear());
+            Long departmentId = subjectService.getSubjectById(run.getSubjectId())
+                .map(Subject::getDepartmentId).orElse(null);
+            Plan plan = new Plan(run, classifyExams(run.getSubjectId(), from, to),
+                gradingSchemeRegistry.schemeFor(departmentId, run.getAcademicYear()), from, to);
+            while (true) {
+                long after = checkpoint;
+                Long next = transactionTemplate.execute(status -> processChunk(plan, after));
+                if (next == null) {
+                    break;
+                }
+                checkpoint = next;
+            }
+            if (jdbcTemplate.update(COMPLETE_SQL, run.getId(), checkpoint) > 0) {
+                log.info("Grade run {} for subject {} ({} semester {}) completed in {} ms", run.getId(),
+                    run.getSubjectId(), run.getAcademicYear(), run.getSemester(), System.currentTimeMillis() - started);
+            }
+        } catch (RuntimeException e) {
+            log.error("Grade run {} failed after student {}", run.getId(), checkpoint, e);
+            jdbcTemplate.update(FAIL_SQL, String.valueOf(e.getMessage()), run.getId(), checkpoint);
+        }
+    }
+    
+    /**
+     * Grades the enrolled students after {@code after} and returns the last of them, or null
+     * when there are none left.
+     */
+    private Long processChunk(Plan plan, long after) {
+        GradeRun run = plan.run();
+        List<StudentScores> students = loadChunk(plan, after);
+        if (students.isEmpty()) {
+            return null;
+        }
+        List<GradeCalculation> grades = students.parallelStream()
+            .map(scores -> grade(plan, scores))
+            .toList();
+        int[] counts = jdbcTemplate.batchUpdate(UPSERT_SQL, grades, grades.size(), (ps, grade) -> {
+            ps.setLong(1, grade.getStudentId());
+            ps.setLong(2, grade.getSubjectId());
+            ps.setString(3, grade.getAcademicYear());
+            ps.setInt(4, grade.getSemester());
+            ps.setBigDecimal(5, grade.getInternalMarks());
+            ps.setBigDecimal(6, grade.getExternalMarks());
+            ps.setBigDecimal(7, grade.getAssignmentMarks());
+            ps.setBigDecimal(8, grade.getAttendancePercentage());
+            ps.setBigDecimal(9, grade.getTotalMarks());
+            ps.setString(10, grade.getGrade());
+            ps.setBigDecimal(11, grade.getGradePoints());
+            ps.setObject(12, grade.getCredits());
+            ps.setObject(13, run.getStartedBy());
+        })[0];
+        int skipped = 0;
+        for (int count : counts) {
+            // The conflict clause matched an approved or published grade
+            if (count == 0) {
+                skipped++;
+            }
+        }
+        long last = students.get(students.size() - 1).studentId;
+        if (jdbcTemplate.update(CHECKPOINT_SQL, last, students.size(), skipped, run.getId(), after) == 0) {
+            throw new IllegalStateException("Grade run " + run.getId() + " is no longer owned by this worker");
+        }
+        log.debug("Grade run {}: graded students {} to {}", run.getId(), students.get(0).studentId, last);
+        return last;
+    }
+    
+    private List<StudentScores> loadChunk(Plan plan, long after) {
+        GradeRun run = plan.run();
+        Map<Long, StudentScores> students = new LinkedHashMap<>();
+        jdbcTemplate.query(CHUNK_SQL, rs -> {
+            long studentId = rs.getLong("student_id");
+            StudentScores scores = students.get(studentId);
+            if (scores == null) {
+                scores = new StudentScores(studentId, (Integer) rs.getObject("credits"),
+                    rs.getLong("present_count"), rs.getLong("late_count"), rs.getLong("total_count"));
+                students.put(studentId, scores);
+            }
+            long examId = rs.getLong("exam_id");
+            if (!rs.wasNull()) {
+                scores.add(plan.exams().getOrDefault(examId, Component.INTERNAL),
+                    rs.getBigDecimal("marks_obtained"), rs.getBigDecimal("total_marks"));
+            }
+        }, run.getSubjectId(), run.getAcademicYear(), run.getSemester(), after, chunkSize,
+            run.getSubjectId(), run.getAcademicYear(), run.getSubjectId(), plan.from(), plan.to());
+        return new ArrayList<>(students.values());
+    }
+    
+    private GradeCalculation grade(Plan plan, StudentScores scores) {
+        GradeRun run = plan.run();
+        CompiledGradingScheme scheme = plan.scheme();
+        long internal = scores.percentage(Component.INTERNAL);
+        long external = scores.percentage(Component.EXTERNAL);
+        long assignment = scores.percentage(Component.ASSIGNMENT);
+        long total = scheme.totalHundredths(orZero(internal), orZero(external), orZero(assignment));
+        int band = scheme.band(total);
+        
+        GradeCalculation grade = new GradeCalculation();
+        grade.setStudentId(scores.studentId);
+        grade.setSubjectId(run.getSubjectId());
+        grade.setAcademicYear(run.getAcademicYear());
+        grade.setSemester(run.getSemester());
+        grade.setInternalMarks(decimal(internal));
+        grade.setExternalMarks(decimal(external));
+        grade.setAssignmentMarks(decimal(assignment));
+        if (scores.totalClasses > 0) {
+            double attended = scores.present + scores.late * lateWeight;
+            grade.setAttendancePercentage(BigDecimal.valueOf(attended * 100 / scores.totalClasses)
+                .setScale(2, RoundingMode.HALF_UP));
+        }
+        grade.setCredits(scores.credits);
+        grade.setTotalMarks(BigDecimal.valueOf(total, 2));
+        grade.setGrade(scheme.grade(band));
+        grade.setGradePoints(scheme.gradePoints(band));
+        return grade;
+    }
+    
+    private static long orZero(long hundredths) {
+        return hundredths == NO_MARKS ? 0 : hundredths;
+    }
+    
+    private static BigDecimal decimal(long hundredths) {
+        return hundredths == NO_MARKS ? null : BigDecimal.valueOf(hundredths, 2);
+    }
+    
+    private Map<Long, Component> classifyExams(Long subjectId, LocalDate from, LocalDate to) {
+        Map<Long, Component> exams = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM exam WHERE subject_id = ? AND date BETWEEN ? AND ?", rs -> {
+            exams.put(rs.getLong("id"), classify(rs.getString("name")));
+        }, subjectId, from, to);
+        return exams;
+    }
+    
+    private Component classify(String examName) {
+        String name = examName != null ? examName.toLowerCase(Locale.ROOT) : "";
+        if (matches(name, externalPatterns)) {
+            return Component.EXTERNAL;
+        }
+        if (matches(name, assignmentPatterns)) {
+            return Component.ASSIGNMENT;
+        }
+        return Component.INTERNAL;
+    }
+    
+    private static boolean matches(String name, List<String> patterns) {
+        for (String pattern : patterns) {
+            if (!pattern.isBlank() && name.contains(pattern.trim().toLowerCase(Locale.ROOT))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    /** What a run grades with, fixed when it starts */
+    private record Plan(GradeRun run,
+                        Map<Long, Component> exams,
+                        CompiledGradingScheme scheme,
+                        LocalDate from,
+                        LocalDate to) {
+    }
+    
+    /** One student's enrollment, attendance and marks (in hundredths) summed per component */
+    private static final class StudentScores {
+        
+        final long studentId;
+        final Integer credits;
+        final long present;
+        final long late;
+        final long totalClasses;
+        final long[] obtained = new long[Component.values().length];
+        final long[] possible = new long[Component.values().length];
+        
+        StudentScores(long studentId, Integer credits, long present, long late, long totalClasses) {
+            this.studentId = studentId;
+            this.credits = credits;
+            this.present = present;
+            this.late = late;
+            this.totalClasses = totalClasses;
+        }
+        
+        void add(Component component, BigDecimal marksObtained, BigDecimal totalMarks) {
+            if (marksObtained == null || totalMarks == null || totalMarks.signum() <= 0) {
+                return;
+            }
+            int i = component.ordinal();
+            obtained[i] += CompiledGradingScheme.toHundredths(marksObtained);
+            possible[i] += CompiledGradingScheme.toHundredths(totalMarks);
+        }
+        
+        /** Percentage scored in hundredths, rounded HALF_UP, or {@link #NO_MARKS} */
+        long percentage(Component component) {
+            int i = component.ordinal();
+            if (possible[i] == 0) {
+                return NO_MARKS;
+            }
+            return CompiledGradingScheme.divideHalfUp(obtained[i] * 10_000, possible[i]);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.erp.service;
+
+import com.example.erp.entity.GradingScheme;
+import com.example.erp.repository.GradingSchemeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Every grading scheme, compiled once and kept in memory. The scheme for a grade is the latest
+ * regulation of the subject's department in force for the grade's academic year, falling back
+ * to the institution-wide schemes (no department).
+ *
+ * <p>Like {@link CalendarIndex}, the registry is rebuilt on first use after
+ * {@link #invalidate()}, which scheme writes call once their transaction completes and which
+ * other instances trigger through {@link CacheInvalidationBus}.
+ */
+@Component
+@Slf4j
+public class GradingSchemeRegistry {
+    
+    private final GradingSchemeRepository gradingSchemeRepository;
+    private final AtomicLong generation = new AtomicLong();
+    
+    private volatile Snapshot snapshot;
+    
+    public GradingSchemeRegistry(GradingSchemeRepository gradingSchemeRepository) {
+        this.gradingSchemeRepository = gradingSchemeRepository;
+    }
+    
+    /**
+     * The scheme that applies to {@code departmentId} in {@code academicYear}; the latest one
+     * when the academic year is not known.
+     */
+    public CompiledGradingScheme schemeFor(Long departmentId, String academicYear) {
+        Snapshot current = current();
+        CompiledGradingScheme scheme = departmentId != null
+            ? find(current.byDepartment.get(departmentId), academicYear) : null;
+        if (scheme == null) {
+            scheme = find(current.byDepartment.get(null), academicYear);
+        }
+        if (scheme == null) {
+            throw new RuntimeException("No grading scheme applies to department " + departmentId
+                + (academicYear != null ? " in " + academicYear : ""));
+        }
+        return scheme;
+    }
+    
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+    
+    /** Invalidates now and again when the current transaction completes; see {@link CalendarIndex} */
+    public void invalidateAfterCompletion() {
+        invalidate();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate();
+                }
+            });
+        }
+    }
+    
+    private static CompiledGradingScheme find(List<CompiledGradingScheme> schemes, String academicYear) {
+        if (schemes == null) {
+            return null;
+        }
+        // Newest first; academic years like 2024-25 order correctly as strings
+        for (CompiledGradingScheme scheme : schemes) {
+            if (academicYear == null || scheme.getEffectiveFrom().compareTo(academicYear) <= 0) {
+                return scheme;
+            }
+        }
+        return null;
+    }
+    
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && current.generation == generation.get()) {
+            return current;
+        }
+        return rebuild();
+    }
+    
+    private synchronized Snapshot rebuild() {
+        long expected = generation.get();
+        Snapshot current = snapshot;
+        if (current != null && current.generation == expected) {
+            return current;
+        }
+        Map<Long, List<CompiledGradingScheme>> byDepartment = new HashMap<>();
+        for (GradingScheme scheme : gradingSchemeRepository.findAll()) {
+            try {
+                byDepartment.computeIfAbsent(scheme.getDepartmentId(), id -> new ArrayList<>())
+                    .add(CompiledGradingScheme.compile(scheme));
+            } catch (RuntimeException e) {
+                log.error("Ignoring grading scheme {} ({}): {}", scheme.getId(), scheme.getName(), e.getMessage());
+            }
+        }
+        for (List<CompiledGradingScheme> schemes : byDepartment.values()) {
+            schemes.sort(Comparator.comparing(CompiledGradingScheme::getEffectiveFrom).reversed());
+        }
+        Snapshot built = new Snapshot(expected, byDepartment);
+        // An invalidation that arrived while loading means the rows may already be stale
+        if (generation.get() == expected) {
+            snapshot = built;
+        }
+        return built;
+    }
+    
+    /** Compiled schemes per department id (null for institution-wide), newest regulation first */
+    private record Snapshot(long generation, Map<Long, List<CompiledGradingScheme>> byDepartment) {
+    }
+}
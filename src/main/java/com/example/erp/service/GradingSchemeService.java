@@ -0,0 +1,139 @@
+package com.example.erp.service;
+
+import com.example.erp.entity.GradingScheme;
+import com.example.erp.entity.GradingSchemeBand;
+import com.example.erp.repository.GradingSchemeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class GradingSchemeService {
+    
+    private final GradingSchemeRepository gradingSchemeRepository;
+    private final DepartmentService departmentService;
+    private final GradingSchemeRegistry gradingSchemeRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    
+    public List<GradingScheme> getAllSchemes() {
+        return gradingSchemeRepository.findAll();
+    }
+    
+    public Optional<GradingScheme> getSchemeById(Long id) {
+        return gradingSchemeRepository.findById(id);
+    }
+    
+    public List<GradingScheme> getSchemesByDepartment(Long departmentId) {
+        return gradingSchemeRepository.findByDepartmentIdOrderByEffectiveFromDesc(departmentId);
+    }
+    
+    public GradingScheme createScheme(GradingScheme scheme) {
+        validate(scheme);
+        scheme.setId(null);
+        scheme.getBands().forEach(band -> band.setId(null));
+        GradingScheme savedScheme = gradingSchemeRepository.save(scheme);
+        changed(savedScheme.getId());
+        return savedScheme;
+    }
+    
+    public GradingScheme updateScheme(Long id, GradingScheme schemeDetails) {
+        GradingScheme scheme = gradingSchemeRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Grading scheme not found with id: " + id));
+        
+        if (schemeDetails.getName() != null) {
+            scheme.setName(schemeDetails.getName());
+        }
+        if (schemeDetails.getEffectiveFrom() != null) {
+            scheme.setEffectiveFrom(schemeDetails.getEffectiveFrom());
+        }
+        if (schemeDetails.getInternalWeight() != null) {
+            scheme.setInternalWeight(schemeDetails.getInternalWeight());
+        }
+        if (schemeDetails.getExternalWeight() != null) {
+            scheme.setExternalWeight(schemeDetails.getExternalWeight());
+        }
+        if (schemeDetails.getAssignmentWeight() != null) {
+            scheme.setAssignmentWeight(schemeDetails.getAssignmentWeight());
+        }
+        // Bands are replaced as a whole
+        if (schemeDetails.getBands() != null && !schemeDetails.getBands().isEmpty()) {
+            replaceBands(scheme, schemeDetails.getBands());
+        }
+        
+        validate(scheme);
+        GradingScheme updatedScheme = gradingSchemeRepository.save(scheme);
+        changed(id);
+        return updatedScheme;
+    }
+    
+    public void deleteScheme(Long id) {
+        GradingScheme scheme = gradingSchemeRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Grading scheme not found with id: " + id));
+        // Departments without a scheme of their own fall back to the institution-wide one
+        if (scheme.getDepartmentId() == null && gradingSchemeRepository.findByDepartmentIdIsNull().size() <= 1) {
+            throw new RuntimeException("Cannot delete the last institution-wide grading scheme");
+        }
+        gradingSchemeRepository.delete(scheme);
+        changed(id);
+    }
+    
+    /**
+     * Updates the bands in place, keyed by minMarks. Clearing the collection and adding the new
+     * bands would insert them before the old rows are deleted and trip uk_grading_scheme_band_min.
+     */
+    private void replaceBands(GradingScheme scheme, List<GradingSchemeBand> newBands) {
+        Map<BigDecimal, GradingSchemeBand> requested = new TreeMap<>();
+        for (GradingSchemeBand band : newBands) {
+            if (band.getMinMarks() == null) {
+                throw new RuntimeException("Grade bands need minMarks, grade and gradePoints");
+            }
+            if (requested.put(band.getMinMarks(), band) != null) {
+                throw new RuntimeException("Two grade bands start at " + band.getMinMarks());
+            }
+        }
+        
+        Iterator<GradingSchemeBand> existing = scheme.getBands().iterator();
+        while (existing.hasNext()) {
+            GradingSchemeBand band = existing.next();
+            GradingSchemeBand replacement = requested.remove(band.getMinMarks());
+            if (replacement == null) {
+                existing.remove();
+            } else {
+                band.setGrade(replacement.getGrade());
+                band.setGradePoints(replacement.getGradePoints());
+            }
+        }
+        for (GradingSchemeBand band : requested.values()) {
+            band.setId(null);
+            scheme.getBands().add(band);
+        }
+    }
+    
+    private void validate(GradingScheme scheme) {
+        if (scheme.getName() == null || scheme.getName().trim().isEmpty()) {
+            throw new RuntimeException("Grading scheme name is required");
+        }
+        if (scheme.getEffectiveFrom() == null || !scheme.getEffectiveFrom().matches("\\d{4}-\\d{2}")) {
+            throw new RuntimeException("effectiveFrom must be an academic year like 2024-25");
+        }
+        if (scheme.getDepartmentId() != null && departmentService.getDepartmentById(scheme.getDepartmentId()).isEmpty()) {
+            throw new RuntimeException("Department not found with id: " + scheme.getDepartmentId());
+        }
+        // Fails on anything the engine cannot evaluate exactly
+        CompiledGradingScheme.compile(scheme);
+    }
+    
+    private void changed(Long id) {
+        gradingSchemeRegistry.invalidateAfterCompletion();
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.GRADING_SCHEME, id);
+    }
+}
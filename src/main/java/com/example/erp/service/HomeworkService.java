@@ -1,7 +1,10 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Homework;
 import com.example.erp.repository.HomeworkRepository;
+import com.example.erp.repository.KeysetPaginator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,10 +19,15 @@ import java.util.Optional;
 public class HomeworkService {
     
     private final HomeworkRepository homeworkRepository;
+    private final KeysetPaginator keysetPaginator;
     
     public List<Homework> getAllHomework() {
         return homeworkRepository.findAll();
     }
+
+    public CursorPage<Homework> getHomeworkPage(PageQuery query) {
+        return keysetPaginator.findPage(Homework.class, query);
+    }
     
     public Optional<Homework> getHomeworkById(Long id) {
         return homeworkRepository.findById(id);
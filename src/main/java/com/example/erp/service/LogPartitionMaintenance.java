@@ -0,0 +1,118 @@
+package com.example.erp.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the monthly partitions of the {@code log} table in shape: creates partitions ahead of
+ * time so new rows never land in {@code log_default}, and removes partitions older than the
+ * retention period, either by dropping them or by detaching them into standalone
+ * {@code log_archive_YYYY_MM} tables that can be exported and dropped later.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LogPartitionMaintenance {
+    
+    public enum RetentionAction {
+        DROP, DETACH
+    }
+    
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    
+    private static final String LIST_PARTITIONS_SQL =
+        "SELECT c.relname FROM pg_inherits i "
+        + "JOIN pg_class c ON c.oid = i.inhrelid "
+        + "JOIN pg_class p ON p.oid = i.inhparent "
+        + "WHERE p.relname = 'log' AND c.relname ~ '^log_[0-9]{4}_[0-9]{2}$'";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${app.audit.log.partitions-ahead:3}")
+    private int partitionsAhead;
+    
+    @Value("${app.audit.log.retention-months:24}")
+    private int retentionMonths;
+    
+    @Value("${app.audit.log.retention-action:DETACH}")
+    private RetentionAction retentionAction;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.audit.log.maintenance-cron:0 15 1 * * *}")
+    public void scheduledMaintenance() {
+        try {
+            maintain();
+        } catch (Exception e) {
+            log.error("Failed to maintain log partitions", e);
+        }
+    }
+    
+    /**
+     * Creates missing future partitions and applies the retention policy.
+     * Returns the partitions created and expired.
+     */
+    public Map<String, List<String>> maintain() {
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        result.put("created", createFuturePartitions());
+        result.put("expired", expireOldPartitions());
+        return result;
+    }
+    
+    private List<String> createFuturePartitions() {
+        List<String> existing = listPartitions();
+        List<String> created = new ArrayList<>();
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= partitionsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String name = partitionName(month);
+            if (existing.contains(name)) {
+                continue;
+            }
+            jdbcTemplate.execute(String.format(
+                "CREATE TABLE %s PARTITION OF log FOR VALUES FROM ('%s') TO ('%s')",
+                name, month.atDay(1), month.plusMonths(1).atDay(1)));
+            created.add(name);
+        }
+        return created;
+    }
+    
+    private List<String> expireOldPartitions() {
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+        List<String> expired = new ArrayList<>();
+        for (String name : listPartitions()) {
+            YearMonth month = YearMonth.parse(name.substring("log_".length()), SUFFIX);
+            if (!month.isBefore(oldestKept)) {
+                continue;
+            }
+            if (retentionAction == RetentionAction.DROP) {
+                jdbcTemplate.execute("DROP TABLE " + name);
+            } else {
+                jdbcTemplate.execute("ALTER TABLE log DETACH PARTITION " + name);
+                jdbcTemplate.execute("ALTER TABLE " + name + " RENAME TO log_archive_" + month.format(SUFFIX));
+            }
+            expired.add(name);
+        }
+        return expired;
+    }
+    
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class);
+    }
+    
+    private static String partitionName(YearMonth month) {
+        return "log_" + month.format(SUFFIX);
+    }
+}
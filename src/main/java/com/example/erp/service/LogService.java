@@ -1,10 +1,17 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Log;
+import com.example.erp.repository.KeysetPaginator;
 import com.example.erp.repository.LogRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -12,34 +19,96 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Slf4j
 public class LogService {
 
     private final LogRepository logRepository;
+    private final KeysetPaginator keysetPaginator;
+    private final AuditLogWriter auditLogWriter;
+    private final AuditOutbox auditOutbox;
 
+    public enum AuditMode {
+        /** Queued after commit and written in batches by {@link AuditLogWriter} */
+        ASYNC,
+        /** Written to audit_outbox in the caller's transaction and relayed by {@link AuditOutbox} */
+        OUTBOX
+    }
+
+    @Value("${app.audit.mode:ASYNC}")
+    private AuditMode auditMode;
+
+    /**
+     * Records an audit row. In ASYNC mode the row is queued for the background writer after the
+     * commit, so rolled-back operations leave no audit trail, as before. In OUTBOX mode it is
+     * written to the outbox within the current transaction.
+     */
     public void logAction(Long userId, String action, String entityType, Long entityId) {
+        AuditEntry entry = new AuditEntry(userId, action, entityType, entityId, LocalDateTime.now());
+        if (auditMode == AuditMode.OUTBOX) {
+            auditOutbox.append(List.of(entry));
+            return;
+        }
         try {
-            Log log = new Log();
-            log.setUserId(userId);
-            log.setAction(action);
-            log.setEntityType(entityType);
-            log.setEntityId(entityId);
-            log.setTimestamp(LocalDateTime.now());
-
-            logRepository.save(log);
+            afterCommit(() -> auditLogWriter.submit(entry));
         } catch (Exception e) {
             // Log the error but don't fail the main operation
-            System.err.println("Failed to log action: " + e.getMessage());
+            log.warn("Failed to log action {} on {} {}", action, entityType, entityId, e);
         }
     }
 
+    /**
+     * Records one audit row per entity id; see {@link #logAction}.
+     */
+    public void logActions(Long userId, String action, String entityType, List<Long> entityIds) {
+        if (entityIds == null || entityIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<AuditEntry> entries = entityIds.stream()
+            .map(entityId -> new AuditEntry(userId, action, entityType, entityId, now))
+            .toList();
+        if (auditMode == AuditMode.OUTBOX) {
+            auditOutbox.append(entries);
+            return;
+        }
+        try {
+            afterCommit(() -> entries.forEach(auditLogWriter::submit));
+        } catch (Exception e) {
+            // Log the error but don't fail the main operation
+            log.warn("Failed to log action {} on {} {}", action, entityType, entityIds, e);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     public List<Log> getAllLogs() {
         return logRepository.findAllByOrderByTimestampDesc();
     }
 
+    public CursorPage<Log> getLogsPage(PageQuery query) {
+        return keysetPaginator.findPageByTimestamp(Log.class, "timestamp", Log::getTimestamp, query, true);
+    }
+
     public List<Log> getLogsByUser(Long userId) {
         return logRepository.findByUserId(userId);
     }
 
+    public CursorPage<Log> getLogsPageByUser(Long userId, PageQuery query) {
+        return keysetPaginator.findPageByTimestamp(Log.class, "timestamp", Log::getTimestamp, query, true,
+            (root, cq, cb) -> cb.equal(root.get("userId"), userId));
+    }
+
     public List<Log> getLogsByAction(String action) {
         return logRepository.findByAction(action);
     }
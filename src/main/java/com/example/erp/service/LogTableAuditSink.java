@@ -0,0 +1,35 @@
+package com.example.erp.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Writes audit events into the {@code log} table as one JDBC batch. A user id that no longer
+ * exists, such as that of a user whose own deletion is being recorded, is stored as null
+ * rather than failing the foreign key.
+ */
+@Component
+@RequiredArgsConstructor
+public class LogTableAuditSink implements AuditSink {
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO log (user_id, action, entity_type, entity_id, timestamp) "
+        + "VALUES ((SELECT u.user_id FROM users u WHERE u.user_id = ?), ?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void write(List<AuditEntry> entries) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setObject(1, entry.userId());
+            ps.setString(2, entry.action());
+            ps.setString(3, entry.entityType());
+            ps.setObject(4, entry.entityId());
+            ps.setTimestamp(5, Timestamp.valueOf(entry.timestamp()));
+        });
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.erp.service;
+
+import com.example.erp.dto.MarksImportReport;
+import com.example.erp.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports an exam's marks from CSV in one transaction. The file is read line by line and
+ * handled in chunks of {@code chunk-size} rows: each chunk costs one query to check its students
+ * and one JDBC batch insert, instead of four statements per row through
+ * {@link MarksService#createMarks}. Existing marks for the exam are loaded once up front.
+ *
+ * <p>Columns are {@code student_id,marks_obtained[,total_marks]}, with an optional header line.
+ * Rows are checked as {@code createMarks} checks them; rejected rows are reported by line
+ * number and do not stop the rest of the file from being imported.
+ */
+@Service
+public class MarksImportService {
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO marks (student_id, exam_id, marks_obtained, total_marks) VALUES (?, ?, ?, ?)";
+    
+    // marks columns are DECIMAL(5,2)
+    private static final BigDecimal COLUMN_LIMIT = new BigDecimal("1000");
+    
+    private record Row(int line, Long studentId, BigDecimal marksObtained, BigDecimal totalMarks, String error) {
+    }
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final StudentRepository studentRepository;
+    private final ReferenceLookupService referenceLookupService;
+    private final LogService logService;
+    private final MarksStatisticsService marksStatisticsService;
+    private final int chunkSize;
+    private final int maxErrors;
+    
+    public MarksImportService(JdbcTemplate jdbcTemplate,
+                              StudentRepository studentRepository,
+                              ReferenceLookupService referenceLookupService,
+                              LogService logService,
+                              MarksStatisticsService marksStatisticsService,
+                              @Value("${app.marks.import.chunk-size:1000}") int chunkSize,
+                              @Value("${app.marks.import.max-errors:1000}") int maxErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.studentRepository = studentRepository;
+        this.referenceLookupService = referenceLookupService;
+        this.logService = logService;
+        this.marksStatisticsService = marksStatisticsService;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+    
+    /**
+     * @param defaultTotalMarks used for rows without a {@code total_marks} column; may be null
+     */
+    @Transactional
+    public MarksImportReport importMarks(Long examId, BigDecimal defaultTotalMarks, InputStream csv) {
+        if (examId == null) {
+            throw new RuntimeException("Exam ID is required");
+        }
+        if (!referenceLookupService.examExists(examId)) {
+            throw new RuntimeException("Exam not found with id: " + examId);
+        }
+        if (defaultTotalMarks != null) {
+            String problem = checkTotal(defaultTotalMarks);
+            if (problem != null) {
+                throw new RuntimeException(problem);
+            }
+        }
+        
+        Set<Long> alreadyMarked = new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT student_id FROM marks WHERE exam_id = ?", Long.class, examId));
+        Set<Long> inFile = new HashSet<>();
+        MarksImportReport report = new MarksImportReport(examId, 0, 0, 0, false, new ArrayList<>());
+        List<Long> markIds = new ArrayList<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String text;
+            int line = 0;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (line == 1 && text.startsWith("\uFEFF")) {
+                    text = text.substring(1);
+                }
+                if (text.isBlank() || (line == 1 && isHeader(text))) {
+                    continue;
+                }
+                report.setRowsRead(report.getRowsRead() + 1);
+                chunk.add(parse(line, text, defaultTotalMarks));
+                if (chunk.size() == chunkSize) {
+                    markIds.addAll(flush(examId, chunk, alreadyMarked, inFile, report));
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read the uploaded file: " + e.getMessage(), e);
+        }
+        markIds.addAll(flush(examId, chunk, alreadyMarked, inFile, report));
+        
+        report.setImported(markIds.size());
+        if (!markIds.isEmpty()) {
+            marksStatisticsService.evictExam(examId);
+        }
+        logService.logActions(null, "CREATE", "Marks", markIds);
+        return report;
+    }
+    
+    private List<Long> flush(Long examId, List<Row> rows, Set<Long> alreadyMarked, Set<Long> inFile,
+                             MarksImportReport report) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> studentIds = new HashSet<>();
+        for (Row row : rows) {
+            if (row.error() == null) {
+                studentIds.add(row.studentId());
+            }
+        }
+        Set<Long> existingStudents = studentIds.isEmpty()
+            ? Set.of() : new HashSet<>(studentRepository.findExistingIds(studentIds));
+        
+        List<Row> accepted = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            String error = row.error();
+            if (error == null && !existingStudents.contains(row.studentId())) {
+                error = "Student not found with id: " + row.studentId();
+            } else if (error == null && alreadyMarked.contains(row.studentId())) {
+                error = "Marks already exist for this student and exam. Use update instead.";
+            } else if (error == null && !inFile.add(row.studentId())) {
+                error = "Student " + row.studentId() + " appears more than once in the file";
+            }
+            if (error == null) {
+                accepted.add(row);
+            } else {
+                reject(report, row.line(), row.studentId(), error);
+            }
+        }
+        return insertBatch(examId, accepted);
+    }
+    
+    private List<Long> insertBatch(Long examId, List<Row> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[] {"id"})) {
+                for (Row row : rows) {
+                    ps.setLong(1, row.studentId());
+                    ps.setLong(2, examId);
+                    ps.setBigDecimal(3, row.marksObtained());
+                    ps.setBigDecimal(4, row.totalMarks());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                
+                List<Long> ids = new ArrayList<>(rows.size());
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+    
+    private Row parse(int line, String text, BigDecimal defaultTotalMarks) {
+        String[] fields = text.split(",", -1);
+        if (fields.length < 2 || fields.length > 3) {
+            return new Row(line, null, null, null, "Expected student_id,marks_obtained[,total_marks]");
+        }
+        Long studentId;
+        try {
+            studentId = Long.valueOf(unquote(fields[0]));
+        } catch (NumberFormatException e) {
+            return new Row(line, null, null, null, "Invalid student ID: " + fields[0].trim());
+        }
+        BigDecimal marksObtained;
+        BigDecimal totalMarks = defaultTotalMarks;
+        try {
+            marksObtained = new BigDecimal(unquote(fields[1]));
+            if (fields.length == 3 && !unquote(fields[2]).isEmpty()) {
+                totalMarks = new BigDecimal(unquote(fields[2]));
+            }
+        } catch (NumberFormatException e) {
+            return new Row(line, studentId, null, null, "Marks must be numbers");
+        }
+        
+        String error = null;
+        if (totalMarks == null) {
+            error = "Total marks is required";
+        } else if (marksObtained.compareTo(BigDecimal.ZERO) < 0) {
+            error = "Marks obtained cannot be negative";
+        } else if (checkTotal(totalMarks) != null) {
+            error = checkTotal(totalMarks);
+        } else if (marksObtained.compareTo(totalMarks) > 0) {
+            error = "Marks obtained (" + marksObtained + ") cannot be greater than total marks (" + totalMarks + ")";
+        } else if (marksObtained.scale() > 2) {
+            error = "Marks may have at most two decimal places";
+        }
+        return new Row(line, studentId, marksObtained, totalMarks, error);
+    }
+    
+    private static String checkTotal(BigDecimal totalMarks) {
+        if (totalMarks.compareTo(BigDecimal.ZERO) <= 0) {
+            return "Total marks must be greater than zero";
+        }
+        if (totalMarks.compareTo(COLUMN_LIMIT) >= 0 || totalMarks.scale() > 2) {
+            return "Total marks must be below 1000 with at most two decimal places";
+        }
+        return null;
+    }
+    
+    private void reject(MarksImportReport report, int line, Long studentId, String message) {
+        report.setRejected(report.getRejected() + 1);
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new MarksImportReport.RowError(line, studentId, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+    
+    private static boolean isHeader(String text) {
+        String first = unquote(text.split(",", 2)[0]);
+        return !first.isEmpty() && Character.isLetter(first.charAt(0));
+    }
+    
+    private static String unquote(String field) {
+        String value = field.trim();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1).trim();
+        }
+        return value;
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Marks;
+import com.example.erp.repository.KeysetPaginator;
 import com.example.erp.repository.MarksRepository;
-import com.example.erp.repository.StudentRepository;
-import com.example.erp.repository.ExamRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -18,13 +20,19 @@ import java.util.Optional;
 public class MarksService {
     
     private final MarksRepository marksRepository;
+    private final KeysetPaginator keysetPaginator;
     private final LogService logService;
-    private final StudentRepository studentRepository;
-    private final ExamRepository examRepository;
+    private final ReferenceLookupService referenceLookupService;
+    private final SingleFlight singleFlight;
+    private final MarksStatisticsService marksStatisticsService;
     
     public List<Marks> getAllMarks() {
         return marksRepository.findAll();
     }
+
+    public CursorPage<Marks> getMarksPage(PageQuery query) {
+        return keysetPaginator.findPage(Marks.class, query);
+    }
     
     public Optional<Marks> getMarksById(Long id) {
         return marksRepository.findById(id);
@@ -38,8 +46,14 @@ public class MarksService {
         return marksRepository.findByExamId(examId);
     }
     
+    /**
+     * Hot on result day; concurrent requests for the same subject share one query. Runs without
+     * a transaction of its own so that callers waiting on it do not hold a connection.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Marks> getMarksBySubject(Long subjectId) {
-        return marksRepository.findBySubjectId(subjectId);
+        return singleFlight.execute("marksBySubject", subjectId,
+            () -> List.copyOf(marksRepository.findBySubjectId(subjectId)));
     }
     
     public List<Marks> getMarksByStudentAndSubject(Long studentId, Long subjectId) {
@@ -60,11 +74,11 @@ public class MarksService {
             throw new RuntimeException("Total marks is required");
         }
         
-        if (!studentRepository.existsById(marks.getStudentId())) {
+        if (!referenceLookupService.studentExists(marks.getStudentId())) {
             throw new RuntimeException("Student not found with id: " + marks.getStudentId());
         }
         
-        if (!examRepository.existsById(marks.getExamId())) {
+        if (!referenceLookupService.examExists(marks.getExamId())) {
             throw new RuntimeException("Exam not found with id: " + marks.getExamId());
         }
         
@@ -86,6 +100,7 @@ public class MarksService {
         }
         
         Marks savedMarks = marksRepository.save(marks);
+        marksStatisticsService.evictExam(savedMarks.getExamId());
         logService.logAction(null, "CREATE", "Marks", savedMarks.getId());
         return savedMarks;
     }
@@ -127,6 +142,7 @@ public class MarksService {
         }
         
         Marks updatedMarks = marksRepository.save(marks);
+        marksStatisticsService.evictExam(updatedMarks.getExamId());
         logService.logAction(null, "UPDATE", "Marks", id);
         return updatedMarks;
     }
@@ -136,6 +152,7 @@ public class MarksService {
             .orElseThrow(() -> new RuntimeException("Marks not found with id: " + id));
         
         marksRepository.delete(marks);
+        marksStatisticsService.evictExam(marks.getExamId());
         logService.logAction(null, "DELETE", "Marks", id);
     }
     
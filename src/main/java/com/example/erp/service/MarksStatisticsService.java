@@ -0,0 +1,147 @@
+package com.example.erp.service;
+
+import com.example.erp.dto.MarksStatistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Marks distributions computed in the database: one aggregate query per exam or subject with
+ * ordered-set aggregates for the percentiles and a filtered count per histogram bucket, so no
+ * marks are loaded into the application. Results are cached per exam and per subject and
+ * evicted through {@link #evictExam} whenever an exam's marks change.
+ */
+@Service
+@Transactional(readOnly = true)
+public class MarksStatisticsService {
+    
+    private static final String STATISTICS_SQL =
+        "SELECT COUNT(*) AS n, AVG(p) AS mean, STDDEV_POP(p) AS sd, MIN(p) AS min_p, MAX(p) AS max_p, "
+        + "PERCENTILE_CONT(0.1) WITHIN GROUP (ORDER BY p) AS p10, "
+        + "PERCENTILE_CONT(0.25) WITHIN GROUP (ORDER BY p) AS p25, "
+        + "PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY p) AS median, "
+        + "PERCENTILE_CONT(0.75) WITHIN GROUP (ORDER BY p) AS p75, "
+        + "PERCENTILE_CONT(0.9) WITHIN GROUP (ORDER BY p) AS p90%s "
+        + "FROM (SELECT p, LEAST(FLOOR(p * %d / 100), %d) AS bucket "
+        + "      FROM (SELECT m.marks_obtained * 100.0 / m.total_marks AS p FROM marks m %s "
+        + "            AND m.marks_obtained IS NOT NULL AND m.total_marks > 0) marks_pct) s";
+    
+    private static final String BY_EXAM = "WHERE m.exam_id = :id";
+    
+    private static final String BY_SUBJECT = "JOIN exam e ON e.id = m.exam_id WHERE e.subject_id = :id";
+    
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ReferenceLookupService referenceLookupService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final CacheManager cacheManager;
+    private final int buckets;
+    private final String examSql;
+    private final String subjectSql;
+    
+    public MarksStatisticsService(NamedParameterJdbcTemplate namedJdbcTemplate,
+                                  ReferenceLookupService referenceLookupService,
+                                  CacheInvalidationBus cacheInvalidationBus,
+                                  CacheManager cacheManager,
+                                  @Value("${app.marks.statistics.histogram-buckets:10}") int buckets) {
+        if (buckets < 1 || buckets > 100) {
+            throw new IllegalArgumentException("app.marks.statistics.histogram-buckets must be between 1 and 100");
+        }
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.referenceLookupService = referenceLookupService;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.cacheManager = cacheManager;
+        this.buckets = buckets;
+        StringBuilder bucketCounts = new StringBuilder();
+        for (int i = 0; i < buckets; i++) {
+            bucketCounts.append(", COUNT(*) FILTER (WHERE bucket = ").append(i).append(") AS b").append(i);
+        }
+        this.examSql = String.format(STATISTICS_SQL, bucketCounts, buckets, buckets - 1, BY_EXAM);
+        this.subjectSql = String.format(STATISTICS_SQL, bucketCounts, buckets, buckets - 1, BY_SUBJECT);
+    }
+    
+    @Cacheable(cacheNames = "examStatistics", key = "#examId")
+    public MarksStatistics getExamStatistics(Long examId) {
+        if (!referenceLookupService.examExists(examId)) {
+            throw new RuntimeException("Exam not found with id: " + examId);
+        }
+        MarksStatistics statistics = namedJdbcTemplate.queryForObject(examSql,
+            new MapSqlParameterSource("id", examId), (rs, rowNum) -> map(rs));
+        statistics.setExamId(examId);
+        return statistics;
+    }
+    
+    @Cacheable(cacheNames = "subjectStatistics", key = "#subjectId")
+    public MarksStatistics getSubjectStatistics(Long subjectId) {
+        if (!referenceLookupService.subjectExists(subjectId)) {
+            throw new RuntimeException("Subject not found with id: " + subjectId);
+        }
+        MarksStatistics statistics = namedJdbcTemplate.queryForObject(subjectSql,
+            new MapSqlParameterSource("id", subjectId), (rs, rowNum) -> map(rs));
+        statistics.setSubjectId(subjectId);
+        return statistics;
+    }
+    
+    /**
+     * Drops the cached statistics of the exam and of all subjects, now and again once the
+     * current transaction completes, and tells the other instances to do the same.
+     */
+    public void evictExam(Long examId) {
+        evictLocally(examId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictLocally(examId);
+                }
+            });
+        }
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.MARKS, examId);
+    }
+    
+    private void evictLocally(Long examId) {
+        Cache examStatistics = cacheManager.getCache("examStatistics");
+        if (examStatistics != null) {
+            examStatistics.evict(examId);
+        }
+        Cache subjectStatistics = cacheManager.getCache("subjectStatistics");
+        if (subjectStatistics != null) {
+            subjectStatistics.clear();
+        }
+    }
+    
+    private MarksStatistics map(ResultSet rs) throws SQLException {
+        List<MarksStatistics.HistogramBucket> histogram = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            histogram.add(new MarksStatistics.HistogramBucket(
+                bound(i), bound(i + 1), rs.getLong("b" + i)));
+        }
+        return new MarksStatistics(null, null, rs.getLong("n"),
+            scaled(rs, "mean"), scaled(rs, "median"), scaled(rs, "sd"),
+            scaled(rs, "min_p"), scaled(rs, "max_p"),
+            scaled(rs, "p10"), scaled(rs, "p25"), scaled(rs, "p75"), scaled(rs, "p90"),
+            histogram);
+    }
+    
+    private BigDecimal bound(int bucket) {
+        return BigDecimal.valueOf(100L * bucket).divide(BigDecimal.valueOf(buckets), 2, RoundingMode.HALF_UP);
+    }
+    
+    private static BigDecimal scaled(ResultSet rs, String column) throws SQLException {
+        BigDecimal value = rs.getBigDecimal(column);
+        return value != null ? value.setScale(2, RoundingMode.HALF_UP) : null;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.erp.service;
+
+import com.example.erp.repository.ExamRepository;
+import com.example.erp.repository.FacultyRepository;
+import com.example.erp.repository.StudentRepository;
+import com.example.erp.repository.SubjectRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Cached existence checks used to validate foreign keys on writes. Only positive answers are
+ * cached, so a record created a moment ago is never reported missing; deletes evict the id.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ReferenceLookupService {
+    
+    private final StudentRepository studentRepository;
+    private final SubjectRepository subjectRepository;
+    private final ExamRepository examRepository;
+    private final FacultyRepository facultyRepository;
+    
+    @Cacheable(cacheNames = "studentExists", unless = "!#result")
+    public boolean studentExists(Long id) {
+        return studentRepository.existsById(id);
+    }
+    
+    @Cacheable(cacheNames = "subjectExists", unless = "!#result")
+    public boolean subjectExists(Long id) {
+        return subjectRepository.existsById(id);
+    }
+    
+    @Cacheable(cacheNames = "examExists", unless = "!#result")
+    public boolean examExists(Long id) {
+        return examRepository.existsById(id);
+    }
+    
+    @Cacheable(cacheNames = "facultyExists", unless = "!#result")
+    public boolean facultyExists(Long id) {
+        return facultyRepository.existsById(id);
+    }
+}
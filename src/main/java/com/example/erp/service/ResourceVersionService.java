@@ -0,0 +1,185 @@
+package com.example.erp.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.HexFormat;
+
+/**
+ * Versions for conditional GETs, computed with one aggregate query instead of loading the
+ * entities. A collection's ETag digests its row count, the sum of its ids and the newest
+ * modification time of its rows and of the rows embedded in their JSON (subject, faculty,
+ * department), so inserts, deletes and updates all change it. Single resources also get a
+ * Last-Modified; collections do not, since a delete does not advance their newest timestamp.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ResourceVersionService {
+    
+    /** Lets clients keep the response but makes them revalidate it on every use */
+    public static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    
+    private static final String EPOCH = "TIMESTAMP '1970-01-01 00:00:00'";
+    
+    /** Rows of one resource type and the rows embedded in their JSON, aliased {@code t} */
+    private record Source(String from, String idColumn, String modified) {
+    }
+    
+    private static final Source TIMETABLE = new Source(
+        "FROM timetable t "
+        + "LEFT JOIN subject s ON s.id = t.subject_id "
+        + "LEFT JOIN faculty f ON f.id = t.faculty_id "
+        + "LEFT JOIN department d ON d.id = t.department_id ",
+        "t.id",
+        greatest("t.updated_at, t.created_at", "s.updated_at", "f.updated_at", "d.updated_at"));
+    
+    private static final Source SYLLABUS = new Source(
+        "FROM syllabus t "
+        + "LEFT JOIN subject s ON s.id = t.subject_id "
+        + "LEFT JOIN faculty f ON f.id = t.updated_by "
+        + "LEFT JOIN department d ON d.id = t.department_id ",
+        "t.id",
+        greatest("t.updated_at, t.created_at", "s.updated_at", "f.updated_at", "d.updated_at"));
+    
+    private static final Source CALENDAR = new Source(
+        "FROM academic_calendar t ", "t.id", greatest("t.updated_at, t.created_at"));
+    
+    private static final Source USERS = new Source(
+        "FROM users t ", "t.user_id", greatest("t.updated_at, t.created_at"));
+    
+    public record ResourceVersion(String etag, long lastModified) {
+        
+        /** Version of a resource that does not exist; never matches */
+        static final ResourceVersion NONE = new ResourceVersion(null, -1);
+        
+        /**
+         * Evaluates {@code If-None-Match} / {@code If-Modified-Since}. Returns true when the
+         * response status has been set to 304 and the handler should return nothing; otherwise
+         * the ETag and Last-Modified headers are set for the full response.
+         */
+        public boolean isNotModified(WebRequest request) {
+            if (etag == null) {
+                return false;
+            }
+            return lastModified > 0 ? request.checkNotModified(etag, lastModified) : request.checkNotModified(etag);
+        }
+    }
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public ResourceVersion timetable(Long id) {
+        return single("timetable", TIMETABLE, "t.id = ?", id);
+    }
+    
+    public ResourceVersion timetableByDepartment(Long departmentId) {
+        return collection("timetable:department:" + departmentId, TIMETABLE,
+            "t.department_id = ?", departmentId);
+    }
+    
+    public ResourceVersion timetableBySubject(Long subjectId) {
+        return collection("timetable:subject:" + subjectId, TIMETABLE,
+            "t.subject_id = ?", subjectId);
+    }
+    
+    public ResourceVersion timetableByFaculty(Long facultyId) {
+        return collection("timetable:faculty:" + facultyId, TIMETABLE,
+            "t.faculty_id = ?", facultyId);
+    }
+    
+    public ResourceVersion syllabus(Long id) {
+        return single("syllabus", SYLLABUS, "t.id = ?", id);
+    }
+    
+    public ResourceVersion syllabusBySubject(Long subjectId) {
+        return collection("syllabus:subject:" + subjectId, SYLLABUS,
+            "t.subject_id = ?", subjectId);
+    }
+    
+    public ResourceVersion syllabusByDepartment(Long departmentId) {
+        return collection("syllabus:department:" + departmentId, SYLLABUS,
+            "t.department_id = ?", departmentId);
+    }
+    
+    public ResourceVersion calendarEvent(Long id) {
+        return single("calendar", CALENDAR, "t.id = ?", id);
+    }
+    
+    public ResourceVersion calendarByAcademicYear(String academicYear) {
+        return collection("calendar:year:" + academicYear, CALENDAR,
+            "t.academic_year = ?", academicYear);
+    }
+    
+    public ResourceVersion calendarUpcoming() {
+        // The cut-off moves at midnight, so the date is part of the version
+        LocalDate today = LocalDate.now();
+        return collection("calendar:upcoming:" + today, CALENDAR,
+            "t.event_date >= ?", today);
+    }
+    
+    public ResourceVersion calendarHolidays() {
+        return collection("calendar:holidays", CALENDAR, "t.is_holiday = ?", true);
+    }
+    
+    public ResourceVersion calendarBetween(LocalDate startDate, LocalDate endDate) {
+        return collection("calendar:between:" + startDate + ":" + endDate, CALENDAR,
+            "t.event_date <= ? AND COALESCE(t.end_date, t.event_date) >= ?", endDate, startDate);
+    }
+    
+    public ResourceVersion user(Long userId) {
+        return single("user", USERS, "t.user_id = ?", userId);
+    }
+    
+    private ResourceVersion single(String resource, Source source, String where, Long id) {
+        VersionRow row = query(source, where, id);
+        if (row.count() == 0) {
+            return ResourceVersion.NONE;
+        }
+        return new ResourceVersion(digest(resource + ":" + id, row), row.lastModified().getTime());
+    }
+    
+    private ResourceVersion collection(String resource, Source source, String where, Object... args) {
+        return new ResourceVersion(digest(resource, query(source, where, args)), -1);
+    }
+    
+    private record VersionRow(long count, long idSum, Timestamp lastModified) {
+    }
+    
+    private VersionRow query(Source source, String where, Object... args) {
+        String sql = "SELECT COUNT(*), COALESCE(SUM(" + source.idColumn() + "), 0), MAX(" + source.modified() + ") "
+            + source.from() + "WHERE " + where;
+        return jdbcTemplate.queryForObject(sql,
+            (rs, rowNum) -> new VersionRow(rs.getLong(1), rs.getLong(2), rs.getTimestamp(3)), args);
+    }
+    
+    private static String digest(String resource, VersionRow row) {
+        String version = resource + "|" + row.count() + "|" + row.idSum() + "|" + row.lastModified();
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(version.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * GREATEST over nullable timestamps; each argument is a COALESCE list and a row with none of
+     * them set counts as the epoch, so one NULL does not hide the others.
+     */
+    private static String greatest(String... columns) {
+        StringBuilder sql = new StringBuilder("GREATEST(");
+        for (int i = 0; i < columns.length; i++) {
+            sql.append(i > 0 ? ", " : "").append("COALESCE(").append(columns[i]).append(", ").append(EPOCH).append(")");
+        }
+        return sql.append(")").toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.erp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Serialized result snapshots kept in memory, so that students reading their results hit
+ * neither the snapshot table nor {@code grade_calculation} after the first read. Bounded by the
+ * total size of the JSON held, {@code max-bytes}. {@link ResultSnapshotService} evicts students
+ * whose results change; other instances do so through {@link CacheInvalidationBus}.
+ */
+@Component
+public class ResultSnapshotCache {
+    
+    private final Cache<Long, byte[]> snapshots;
+    
+    public ResultSnapshotCache(@Value("${app.results.snapshot-cache.max-bytes:67108864}") long maxBytes) {
+        this.snapshots = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((Long studentId, byte[] content) -> content.length)
+            .build();
+    }
+    
+    public byte[] get(Long studentId, Function<Long, byte[]> loader) {
+        return snapshots.get(studentId, loader);
+    }
+    
+    public void evict(Long studentId) {
+        snapshots.invalidate(studentId);
+    }
+    
+    public void clear() {
+        snapshots.invalidateAll();
+    }
+    
+    /**
+     * Evicts now and again once the current transaction completes, so a read that loads the
+     * previous snapshot in between cannot keep it cached.
+     */
+    public void evictAfterCompletion(Collection<Long> studentIds) {
+        List<Long> ids = new ArrayList<>(studentIds);
+        snapshots.invalidateAll(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    snapshots.invalidateAll(ids);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.erp.service;
+
+import com.example.erp.entity.GradeCalculation;
+import com.example.erp.entity.ResultSnapshot;
+import com.example.erp.entity.Subject;
+import com.example.erp.repository.ResultSnapshotRepository;
+import com.example.erp.repository.SubjectRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Pre-rendered published results. When grades are published the affected students' published
+ * grades are serialized once, in the publishing transaction, and stored as the student's
+ * {@link com.example.erp.entity.ResultSnapshot}. Students are then served those bytes from
+ * {@link ResultSnapshotCache}, falling back to the stored snapshot, so a results-day spike
+ * never reads {@code grade_calculation}. A student without a snapshot yet, such as one whose
+ * grades were published before snapshots existed, has it rendered and stored on first read.
+ *
+ * <p>Reads deliberately run without a transaction, so a cache hit does not take a connection.
+ */
+@Service
+public class ResultSnapshotService {
+    
+    private static final byte[] NO_RESULTS = "[]".getBytes(StandardCharsets.UTF_8);
+    
+    private static final String PUBLISHED_SQL =
+        "SELECT id, student_id, subject_id, academic_year, semester, internal_marks, external_marks, "
+        + "assignment_marks, attendance_percentage, total_marks, grade, grade_points, credits, status, "
+        + "calculated_at, calculated_by "
+        + "FROM grade_calculation WHERE status = 'PUBLISHED' AND student_id IN (:studentIds) "
+        + "ORDER BY student_id, academic_year, semester, subject_id";
+    
+    private static final String UPDATE_SQL =
+        "UPDATE result_snapshot SET content = ?, grade_count = ?, generated_at = ? WHERE student_id = ?";
+    
+    // A concurrent insert for the same student waits for this one and then does nothing
+    private static final String INSERT_SQL =
+        "INSERT INTO result_snapshot (content, grade_count, generated_at, student_id) VALUES (?, ?, ?, ?) "
+        + "ON CONFLICT DO NOTHING";
+    
+    private static final RowMapper<GradeCalculation> GRADE_MAPPER = (rs, rowNum) -> {
+        GradeCalculation grade = new GradeCalculation();
+        grade.setId(rs.getLong("id"));
+        grade.setStudentId(rs.getLong("student_id"));
+        grade.setSubjectId(rs.getLong("subject_id"));
+        grade.setAcademicYear(rs.getString("academic_year"));
+        grade.setSemester(rs.getInt("semester"));
+        grade.setInternalMarks(rs.getBigDecimal("internal_marks"));
+        grade.setExternalMarks(rs.getBigDecimal("external_marks"));
+        grade.setAssignmentMarks(rs.getBigDecimal("assignment_marks"));
+        grade.setAttendancePercentage(rs.getBigDecimal("attendance_percentage"));
+        grade.setTotalMarks(rs.getBigDecimal("total_marks"));
+        grade.setGrade(rs.getString("grade"));
+        grade.setGradePoints(rs.getBigDecimal("grade_points"));
+        grade.setCredits(rs.getObject("credits") != null ? rs.getInt("credits") : null);
+        grade.setStatus(GradeCalculation.GradeStatus.valueOf(rs.getString("status")));
+        Timestamp calculatedAt = rs.getTimestamp("calculated_at");
+        grade.setCalculatedAt(calculatedAt != null ? calculatedAt.toLocalDateTime() : null);
+        grade.setCalculatedBy(rs.getObject("calculated_by") != null ? rs.getLong("calculated_by") : null);
+        return grade;
+    };
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ResultSnapshotRepository resultSnapshotRepository;
+    private final SubjectRepository subjectRepository;
+    private final ResultSnapshotCache resultSnapshotCache;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    
+    public ResultSnapshotService(JdbcTemplate jdbcTemplate,
+                                 NamedParameterJdbcTemplate namedJdbcTemplate,
+                                 ResultSnapshotRepository resultSnapshotRepository,
+                                 SubjectRepository subjectRepository,
+                                 ResultSnapshotCache resultSnapshotCache,
+                                 CacheInvalidationBus cacheInvalidationBus,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.results.snapshot-chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.resultSnapshotRepository = resultSnapshotRepository;
+        this.subjectRepository = subjectRepository;
+        this.resultSnapshotCache = resultSnapshotCache;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * The student's published grades as a JSON array, in the same shape as the grade
+     * calculation endpoints; {@code []} before anything is published.
+     */
+    public byte[] getPublishedResults(Long studentId) {
+        return resultSnapshotCache.get(studentId, id -> resultSnapshotRepository.findByStudentId(id)
+            .map(snapshot -> snapshot.getContent().getBytes(StandardCharsets.UTF_8))
+            .orElseGet(() -> renderMissing(id)));
+    }
+    
+    /**
+     * Replaces each student's snapshot with their published grades as seen by the current
+     * transaction, so pending changes must be flushed first. Cached snapshots are evicted when
+     * the transaction completes, here and on the other instances.
+     *
+     * @return the number of snapshots written
+     */
+    @Transactional
+    public int regenerate(Collection<Long> studentIds) {
+        List<Long> ids = new ArrayList<>(new TreeSet<>(studentIds));
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+            Map<Long, List<GradeCalculation>> grades = loadPublished(chunk);
+            Timestamp generatedAt = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(chunk.size());
+            for (Long studentId : chunk) {
+                List<GradeCalculation> studentGrades = grades.getOrDefault(studentId, List.of());
+                rows.add(new Object[] {render(studentId, studentGrades), studentGrades.size(), generatedAt, studentId});
+            }
+            store(rows);
+        }
+        resultSnapshotCache.evictAfterCompletion(ids);
+        for (Long id : ids) {
+            cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.RESULT_SNAPSHOT, id);
+        }
+        return ids.size();
+    }
+    
+    /**
+     * Updates existing snapshots and inserts the rest. A row inserted concurrently by a first
+     * read is overwritten once that insert has settled, so the newer content always wins.
+     */
+    private void store(List<Object[]> rows) {
+        List<Object[]> missing = rowsNotWritten(rows, jdbcTemplate.batchUpdate(UPDATE_SQL, rows));
+        if (missing.isEmpty()) {
+            return;
+        }
+        List<Object[]> conflicting = rowsNotWritten(missing, jdbcTemplate.batchUpdate(INSERT_SQL, missing));
+        if (!conflicting.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, conflicting);
+        }
+    }
+    
+    private static List<Object[]> rowsNotWritten(List<Object[]> rows, int[] counts) {
+        List<Object[]> notWritten = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (counts[i] == 0) {
+                notWritten.add(rows.get(i));
+            }
+        }
+        return notWritten;
+    }
+    
+    /**
+     * Renders a student's published grades from {@code grade_calculation} when they have no
+     * snapshot, and stores it unless a publish has written one in the meantime.
+     */
+    private byte[] renderMissing(Long studentId) {
+        List<GradeCalculation> grades = loadPublished(List.of(studentId)).getOrDefault(studentId, List.of());
+        if (grades.isEmpty()) {
+            return NO_RESULTS;
+        }
+        String content = render(studentId, grades);
+        if (jdbcTemplate.update(INSERT_SQL, content, grades.size(), Timestamp.valueOf(LocalDateTime.now()), studentId) == 0) {
+            content = resultSnapshotRepository.findByStudentId(studentId)
+                .map(ResultSnapshot::getContent)
+                .orElse(content);
+        }
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private Map<Long, List<GradeCalculation>> loadPublished(List<Long> studentIds) {
+        List<GradeCalculation> rows = namedJdbcTemplate.query(PUBLISHED_SQL,
+            new MapSqlParameterSource("studentIds", studentIds), GRADE_MAPPER);
+        Set<Long> subjectIds = new HashSet<>();
+        for (GradeCalculation grade : rows) {
+            subjectIds.add(grade.getSubjectId());
+        }
+        Map<Long, Subject> subjects = new HashMap<>();
+        for (Subject subject : subjectRepository.findAllById(subjectIds)) {
+            subjects.put(subject.getId(), subject);
+        }
+        Map<Long, List<GradeCalculation>> byStudent = new HashMap<>();
+        for (GradeCalculation grade : rows) {
+            grade.setSubject(subjects.get(grade.getSubjectId()));
+            byStudent.computeIfAbsent(grade.getStudentId(), id -> new ArrayList<>()).add(grade);
+        }
+        return byStudent;
+    }
+    
+    private String render(Long studentId, List<GradeCalculation> grades) {
+        try {
+            return objectMapper.writeValueAsString(grades);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not render the results of student " + studentId, e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.erp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads: while a load for a key is in flight, other callers
+ * asking for the same key wait for it and share its result (or its exception) instead of
+ * running their own query. Nothing is kept once the load completes, so unlike a cache this
+ * never serves data older than the in-flight query.
+ *
+ * <p>Joining a load is a single {@link ConcurrentHashMap} lookup. A caller that waits longer
+ * than {@code max-wait-ms} runs the load itself. Shared results are handed to several requests
+ * at once and must not be modified, nor hold lazy associations that need the loader's session.
+ *
+ * <p>Per group, {@code single.flight.calls} counts leaders ({@code role=leader}, one query each)
+ * and callers that joined them ({@code role=follower}); followers over all calls is the
+ * coalescing ratio.
+ *
+ * <p>Callers inside a read-write transaction are not coalesced, since their reads may include
+ * changes no one else can see yet.
+ */
+@Component
+public class SingleFlight {
+    
+    private record Key(String group, Object key) {
+    }
+    
+    private record Counters(Counter leader, Counter follower, Counter timedOut) {
+    }
+    
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final long maxWaitMs;
+    
+    public SingleFlight(MeterRegistry meterRegistry,
+                        @Value("${app.single-flight.max-wait-ms:10000}") long maxWaitMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxWaitMs = maxWaitMs;
+        meterRegistry.gauge("single.flight.in.flight", inFlight, Map::size);
+    }
+    
+    /**
+     * Returns the result of {@code loader}, shared with every concurrent caller of the same
+     * group and key. {@code key} must implement {@code equals} and {@code hashCode}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String group, Object key, Supplier<T> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+            && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loader.get();
+        }
+        Key flightKey = new Key(group, key);
+        Counters groupCounters = counters(group);
+        
+        CompletableFuture<Object> existing = inFlight.get(flightKey);
+        if (existing == null) {
+            CompletableFuture<Object> flight = new CompletableFuture<>();
+            existing = inFlight.putIfAbsent(flightKey, flight);
+            if (existing == null) {
+                groupCounters.leader.increment();
+                return (T) lead(flightKey, flight, loader);
+            }
+        }
+        groupCounters.follower.increment();
+        try {
+            return (T) existing.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            groupCounters.timedOut.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + group + " " + key, e);
+        }
+    }
+    
+    private Object lead(Key flightKey, CompletableFuture<Object> flight, Supplier<?> loader) {
+        try {
+            Object result = loader.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+    
+    private Counters counters(String group) {
+        Counters groupCounters = counters.get(group);
+        if (groupCounters != null) {
+            return groupCounters;
+        }
+        return counters.computeIfAbsent(group, g -> new Counters(
+            meterRegistry.counter("single.flight.calls", "group", g, "role", "leader"),
+            meterRegistry.counter("single.flight.calls", "group", g, "role", "follower"),
+            meterRegistry.counter("single.flight.timeouts", "group", g)));
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Student;
+import com.example.erp.repository.KeysetPaginator;
 import com.example.erp.repository.StudentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,11 +19,17 @@ import java.util.Optional;
 public class StudentService {
     
     private final StudentRepository studentRepository;
+    private final KeysetPaginator keysetPaginator;
     private final LogService logService;
+    private final CacheInvalidationBus cacheInvalidationBus;
     
     public List<Student> getAllStudents() {
         return studentRepository.findAll();
     }
+
+    public CursorPage<Student> getStudentsPage(PageQuery query) {
+        return keysetPaginator.findPage(Student.class, query);
+    }
     
     public Optional<Student> getStudentById(Long id) {
         return studentRepository.findById(id);
@@ -106,12 +116,14 @@ public class StudentService {
         return updatedStudent;
     }
     
+    @CacheEvict(cacheNames = "studentExists", key = "#id")
     public void deleteStudent(Long id) {
         Student student = studentRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Student not found with id: " + id));
         
         studentRepository.delete(student);
         logService.logAction(student.getUserId(), "DELETE", "Student", id);
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.STUDENT, id);
     }
     
     public long getStudentCountBySemester(Integer semester) {
@@ -1,8 +1,14 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Subject;
+import com.example.erp.repository.KeysetPaginator;
 import com.example.erp.repository.SubjectRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,32 +21,45 @@ import java.util.Optional;
 public class SubjectService {
     
     private final SubjectRepository subjectRepository;
+    private final KeysetPaginator keysetPaginator;
     private final LogService logService;
+    private final CacheInvalidationBus cacheInvalidationBus;
     
+    @Cacheable(cacheNames = "subjects", key = "'all'")
     public List<Subject> getAllSubjects() {
         return subjectRepository.findAll();
     }
+
+    public CursorPage<Subject> getSubjectsPage(PageQuery query) {
+        return keysetPaginator.findPage(Subject.class, query);
+    }
     
+    @Cacheable(cacheNames = "subjects", key = "'id:' + #id")
     public Optional<Subject> getSubjectById(Long id) {
         return subjectRepository.findById(id);
     }
     
+    @Cacheable(cacheNames = "subjects", key = "'code:' + #code")
     public Optional<Subject> getSubjectByCode(String code) {
         return subjectRepository.findByCode(code);
     }
     
+    @Cacheable(cacheNames = "subjects", key = "'department:' + #departmentId")
     public List<Subject> getSubjectsByDepartment(Long departmentId) {
         return subjectRepository.findByDepartmentId(departmentId);
     }
     
+    @Cacheable(cacheNames = "subjects", key = "'semester:' + #semester")
     public List<Subject> getSubjectsBySemester(Integer semester) {
         return subjectRepository.findBySemester(semester);
     }
     
+    @Cacheable(cacheNames = "subjects", key = "'department:' + #departmentId + ':semester:' + #semester")
     public List<Subject> getSubjectsByDepartmentAndSemester(Long departmentId, Integer semester) {
         return subjectRepository.findByDepartmentIdAndSemester(departmentId, semester);
     }
     
+    @CacheEvict(cacheNames = "subjects", allEntries = true)
     public Subject createSubject(Subject subject) {
         if (subject.getCode() != null && subjectRepository.existsByCode(subject.getCode())) {
             throw new RuntimeException("Subject with code " + subject.getCode() + " already exists");
@@ -48,9 +67,11 @@ public class SubjectService {
         
         Subject savedSubject = subjectRepository.save(subject);
         logService.logAction(null, "CREATE", "Subject", savedSubject.getId());
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.SUBJECT, savedSubject.getId());
         return savedSubject;
     }
     
+    @CacheEvict(cacheNames = "subjects", allEntries = true)
     public Subject updateSubject(Long id, Subject subjectDetails) {
         Subject subject = subjectRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Subject not found with id: " + id));
@@ -62,15 +83,21 @@ public class SubjectService {
         
         Subject updatedSubject = subjectRepository.save(subject);
         logService.logAction(null, "UPDATE", "Subject", id);
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.SUBJECT, id);
         return updatedSubject;
     }
     
+    @Caching(evict = {
+        @CacheEvict(cacheNames = "subjects", allEntries = true),
+        @CacheEvict(cacheNames = "subjectExists", key = "#id")
+    })
     public void deleteSubject(Long id) {
         Subject subject = subjectRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Subject not found with id: " + id));
         
         subjectRepository.delete(subject);
         logService.logAction(null, "DELETE", "Subject", id);
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.SUBJECT, id);
     }
     
     public List<Subject> searchSubjectsByName(String name) {
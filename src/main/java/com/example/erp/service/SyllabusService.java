@@ -1,6 +1,9 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Syllabus;
+import com.example.erp.repository.KeysetPaginator;
 import com.example.erp.repository.SyllabusRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -16,10 +19,15 @@ import java.util.Optional;
 public class SyllabusService {
     
     private final SyllabusRepository syllabusRepository;
+    private final KeysetPaginator keysetPaginator;
     
     public List<Syllabus> getAllSyllabus() {
         return syllabusRepository.findAll();
     }
+
+    public CursorPage<Syllabus> getSyllabusPage(PageQuery query) {
+        return keysetPaginator.findPage(Syllabus.class, query);
+    }
     
     public Optional<Syllabus> getSyllabusById(Long id) {
         return syllabusRepository.findById(id);
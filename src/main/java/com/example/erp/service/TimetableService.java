@@ -1,9 +1,13 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.Timetable;
+import com.example.erp.repository.KeysetPaginator;
 import com.example.erp.repository.TimetableRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -16,17 +20,29 @@ import java.util.Optional;
 public class TimetableService {
     
     private final TimetableRepository timetableRepository;
+    private final KeysetPaginator keysetPaginator;
+    private final SingleFlight singleFlight;
     
     public List<Timetable> getAllTimetables() {
         return timetableRepository.findAll();
     }
+
+    public CursorPage<Timetable> getTimetablesPage(PageQuery query) {
+        return keysetPaginator.findPage(Timetable.class, query);
+    }
     
     public Optional<Timetable> getTimetableById(Long id) {
         return timetableRepository.findById(id);
     }
     
+    /**
+     * Concurrent requests for the same department share one query; see {@link SingleFlight}.
+     * Runs without a transaction of its own so that waiting callers do not hold a connection.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Timetable> getTimetableByDepartment(Long departmentId) {
-        return timetableRepository.findByDepartmentId(departmentId);
+        return singleFlight.execute("timetableByDepartment", departmentId,
+            () -> List.copyOf(timetableRepository.findWithRelationsByDepartmentId(departmentId)));
     }
     
     public List<Timetable> getTimetableBySubject(Long subjectId) {
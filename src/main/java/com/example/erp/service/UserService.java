@@ -1,7 +1,12 @@
 package com.example.erp.service;
 
+import com.example.erp.dto.CursorPage;
+import com.example.erp.dto.PageQuery;
 import com.example.erp.entity.User;
+import com.example.erp.repository.KeysetPaginator;
 import com.example.erp.repository.UserRepository;
+import com.example.erp.security.PrincipalCache;
+import com.example.erp.security.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -16,12 +21,20 @@ import java.util.Optional;
 public class UserService {
     
     private final UserRepository userRepository;
+    private final KeysetPaginator keysetPaginator;
     private final PasswordEncoder passwordEncoder;
     private final LogService logService;
+    private final PrincipalCache principalCache;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final TokenRevocationService tokenRevocationService;
     
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
+
+    public CursorPage<User> getUsersPage(PageQuery query) {
+        return keysetPaginator.findPage(User.class, query);
+    }
     
     public Optional<User> getUserById(Long id) {
         return userRepository.findById(id);
@@ -91,9 +104,13 @@ public class UserService {
                 throw new RuntimeException("Password must be at least 8 characters long");
             }
             user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
+            // Sessions opened with the old password must not outlive it
+            tokenRevocationService.revokeAllForUser(id);
         }
         
         User updatedUser = userRepository.save(user);
+        principalCache.evictAfterCommit(id);
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.USER, id);
         logService.logAction(id, "UPDATE", "User", id);
         return updatedUser;
     }
@@ -118,6 +135,9 @@ public class UserService {
         }
         
         userRepository.delete(user);
+        principalCache.evictAfterCommit(id);
+        cacheInvalidationBus.publish(CacheInvalidationBus.EntityType.USER, id);
+        tokenRevocationService.revokeAllForUser(id);
         logService.logAction(id, "DELETE", "User", id);
     }
     
@@ -0,0 +1,2 @@
+-- Supports duplicate detection for bulk roll calls (one subject, one date, many students)
+CREATE INDEX IF NOT EXISTS idx_attendance_subject_date_student ON attendance(subject_id, date, student_id);
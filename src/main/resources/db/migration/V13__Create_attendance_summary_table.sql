@@ -0,0 +1,35 @@
+-- Per student/subject/academic-year attendance counters, maintained incrementally by AttendanceService
+CREATE TABLE attendance_summary (
+    id BIGSERIAL PRIMARY KEY,
+    student_id BIGINT NOT NULL,
+    subject_id BIGINT NOT NULL,
+    academic_year VARCHAR(10) NOT NULL,
+    present_count INTEGER NOT NULL DEFAULT 0,
+    late_count INTEGER NOT NULL DEFAULT 0,
+    absent_count INTEGER NOT NULL DEFAULT 0,
+    total_count INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    
+    CONSTRAINT fk_attendance_summary_student FOREIGN KEY (student_id) REFERENCES student(id) ON DELETE CASCADE,
+    CONSTRAINT fk_attendance_summary_subject FOREIGN KEY (subject_id) REFERENCES subject(id) ON DELETE CASCADE,
+    CONSTRAINT uk_attendance_summary_student_subject_year UNIQUE (student_id, subject_id, academic_year)
+);
+
+CREATE INDEX idx_attendance_summary_subject_year ON attendance_summary(subject_id, academic_year);
+
+-- Initial population from the raw table (academic year starting in June, e.g. '2024-25')
+INSERT INTO attendance_summary (student_id, subject_id, academic_year, present_count, late_count, absent_count, total_count, updated_at)
+SELECT a.student_id,
+       a.subject_id,
+       a.start_year || '-' || LPAD(CAST((a.start_year + 1) % 100 AS TEXT), 2, '0'),
+       COUNT(*) FILTER (WHERE a.status = 'PRESENT'),
+       COUNT(*) FILTER (WHERE a.status = 'LATE'),
+       COUNT(*) FILTER (WHERE a.status = 'ABSENT'),
+       COUNT(*),
+       CURRENT_TIMESTAMP
+FROM (
+    SELECT student_id, subject_id, status,
+           CAST(EXTRACT(YEAR FROM date) AS INTEGER) - CASE WHEN EXTRACT(MONTH FROM date) >= 6 THEN 0 ELSE 1 END AS start_year
+    FROM attendance
+) a
+GROUP BY a.student_id, a.subject_id, a.start_year;
@@ -0,0 +1,2 @@
+-- Supports keyset pagination of the audit log, newest first: ORDER BY timestamp DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_log_timestamp_id ON log(timestamp, id);
@@ -0,0 +1,15 @@
+-- Append-only outbox for audit events, written in the same transaction as the business change
+-- and relayed into the log table (or other sinks) by AuditOutbox
+CREATE TABLE audit_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT,
+    action VARCHAR(255),
+    entity_type VARCHAR(100),
+    entity_id BIGINT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP
+);
+
+-- The relay only ever scans unprocessed rows in id order
+CREATE INDEX idx_audit_outbox_pending ON audit_outbox(id) WHERE processed_at IS NULL;
+CREATE INDEX idx_audit_outbox_processed_at ON audit_outbox(processed_at) WHERE processed_at IS NOT NULL;
@@ -0,0 +1,56 @@
+-- Turn the append-only log table into a table range-partitioned by month on timestamp.
+-- Date-range queries only scan the partitions they need, and retention (LogPartitionMaintenance)
+-- drops or detaches whole partitions instead of deleting rows.
+
+ALTER TABLE log RENAME TO log_legacy;
+ALTER TABLE log_legacy RENAME CONSTRAINT log_pkey TO log_legacy_pkey;
+ALTER INDEX idx_log_timestamp_id RENAME TO idx_log_legacy_timestamp_id;
+
+-- Keep the existing sequence (AdminController resets it by name) when the old table is dropped
+ALTER SEQUENCE log_id_seq OWNED BY NONE;
+
+-- The partition key must be part of the primary key
+CREATE TABLE log (
+    id BIGINT NOT NULL DEFAULT nextval('log_id_seq'),
+    user_id BIGINT,
+    action VARCHAR(255),
+    entity_type VARCHAR(100),
+    entity_id BIGINT,
+    timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, timestamp),
+    FOREIGN KEY (user_id) REFERENCES users(user_id)
+) PARTITION BY RANGE (timestamp);
+
+-- Catches rows outside every monthly partition so inserts never fail
+CREATE TABLE log_default PARTITION OF log DEFAULT;
+
+-- One partition per month from the oldest existing row up to three months ahead
+DO $$
+DECLARE
+    month_start DATE;
+    last_month DATE := (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::DATE;
+BEGIN
+    SELECT COALESCE(date_trunc('month', MIN(timestamp)), date_trunc('month', CURRENT_DATE))::DATE
+    INTO month_start
+    FROM log_legacy;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF log FOR VALUES FROM (%L) TO (%L)',
+                       'log_' || to_char(month_start, 'YYYY_MM'),
+                       month_start,
+                       (month_start + INTERVAL '1 month')::DATE);
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+
+INSERT INTO log (id, user_id, action, entity_type, entity_id, timestamp)
+SELECT id, user_id, action, entity_type, entity_id, COALESCE(timestamp, CURRENT_TIMESTAMP)
+FROM log_legacy;
+
+DROP TABLE log_legacy;
+
+ALTER SEQUENCE log_id_seq OWNED BY log.id;
+
+-- Created on the parent, so every partition (current and future) gets its own copy
+CREATE INDEX idx_log_timestamp_id ON log(timestamp, id);
+CREATE INDEX idx_log_user_timestamp ON log(user_id, timestamp);
@@ -0,0 +1,18 @@
+-- Revoked JWTs (by jti, or "sha256:<hash>" for tokens without one), kept until the token expires
+CREATE TABLE revoked_token (
+    id BIGSERIAL PRIMARY KEY,
+    token_key VARCHAR(100) NOT NULL UNIQUE,
+    user_id BIGINT,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_revoked_token_revoked_at ON revoked_token(revoked_at);
+CREATE INDEX idx_revoked_token_expires_at ON revoked_token(expires_at);
+
+-- Tokens of a user issued before not_before are rejected (password change, deletion)
+CREATE TABLE user_token_cutoff (
+    user_id BIGINT PRIMARY KEY,
+    not_before TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,10 @@
+-- Subject, faculty and department rows are embedded in timetable and syllabus responses, so their
+-- modification time is part of those resources' ETags
+ALTER TABLE subject ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE faculty ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE department ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+
+-- Collection ETags aggregate by these filters
+CREATE INDEX IF NOT EXISTS idx_timetable_department_id ON timetable(department_id);
+CREATE INDEX IF NOT EXISTS idx_timetable_subject_id ON timetable(subject_id);
+CREATE INDEX IF NOT EXISTS idx_syllabus_subject_id ON syllabus(subject_id);
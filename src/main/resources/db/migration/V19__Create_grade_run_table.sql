@@ -0,0 +1,26 @@
+-- One batch grade computation per subject, academic year and semester. last_student_id is the
+-- checkpoint: students are processed in student_id order and a resumed run continues after it.
+CREATE TABLE grade_run (
+    id BIGSERIAL PRIMARY KEY,
+    subject_id BIGINT NOT NULL,
+    academic_year VARCHAR(10) NOT NULL,
+    semester INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'RUNNING',
+    total_students INTEGER NOT NULL DEFAULT 0,
+    processed_students INTEGER NOT NULL DEFAULT 0,
+    skipped_students INTEGER NOT NULL DEFAULT 0,
+    last_student_id BIGINT NOT NULL DEFAULT 0,
+    started_by BIGINT,
+    started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP,
+    error TEXT,
+    CONSTRAINT fk_grade_run_subject FOREIGN KEY (subject_id) REFERENCES subject(id) ON DELETE CASCADE,
+    CONSTRAINT uk_grade_run_subject_year_semester UNIQUE (subject_id, academic_year, semester),
+    CONSTRAINT chk_grade_run_status CHECK (status IN ('RUNNING', 'COMPLETED', 'FAILED'))
+);
+
+-- The pipeline reads enrollment by subject in student order and marks by student and exam
+CREATE INDEX idx_enrollment_subject_year_semester_student ON enrollment(subject_id, academic_year, semester, student_id);
+CREATE INDEX idx_marks_student_exam ON marks(student_id, exam_id);
+CREATE INDEX idx_exam_subject_date ON exam(subject_id, date);
@@ -0,0 +1,45 @@
+-- Grading schemes: component weights and grade bands, per department (NULL = institution-wide)
+-- and per regulation, identified by the first academic year it applies to. A grade uses the
+-- department's latest regulation in force for its academic year, else the institution's.
+CREATE TABLE grading_scheme (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    department_id BIGINT,
+    effective_from VARCHAR(10) NOT NULL,
+    internal_weight NUMERIC(7,4) NOT NULL,
+    external_weight NUMERIC(7,4) NOT NULL,
+    assignment_weight NUMERIC(7,4) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_grading_scheme_department FOREIGN KEY (department_id) REFERENCES department(id) ON DELETE CASCADE,
+    CONSTRAINT uk_grading_scheme_department_effective UNIQUE (department_id, effective_from),
+    CONSTRAINT chk_grading_scheme_weights CHECK (internal_weight >= 0 AND external_weight >= 0 AND assignment_weight >= 0)
+);
+
+-- UNIQUE treats NULL departments as distinct, so the institution-wide schemes need their own index
+CREATE UNIQUE INDEX uk_grading_scheme_institution_effective ON grading_scheme(effective_from) WHERE department_id IS NULL;
+
+-- A total at or above min_marks (and below the next band) gets this band's grade
+CREATE TABLE grading_scheme_band (
+    id BIGSERIAL PRIMARY KEY,
+    scheme_id BIGINT NOT NULL,
+    min_marks NUMERIC(5,2) NOT NULL,
+    grade VARCHAR(5) NOT NULL,
+    grade_points NUMERIC(4,2) NOT NULL,
+    CONSTRAINT fk_grading_scheme_band_scheme FOREIGN KEY (scheme_id) REFERENCES grading_scheme(id) ON DELETE CASCADE,
+    CONSTRAINT uk_grading_scheme_band_min UNIQUE (scheme_id, min_marks)
+);
+
+-- DECIMAL(3,2) cannot hold 10.00, the points of an A+
+ALTER TABLE grade_calculation ALTER COLUMN grade_points TYPE NUMERIC(4,2);
+
+-- The rules previously hard-coded in GradeCalculationService
+INSERT INTO grading_scheme (name, department_id, effective_from, internal_weight, external_weight, assignment_weight)
+VALUES ('Default', NULL, '2000-01', 0.30, 0.60, 0.10);
+
+INSERT INTO grading_scheme_band (scheme_id, min_marks, grade, grade_points)
+SELECT s.id, b.min_marks, b.grade, b.grade_points
+FROM grading_scheme s
+CROSS JOIN (VALUES (90.00, 'A+', 10.00), (80.00, 'A', 9.00), (70.00, 'B+', 8.00), (60.00, 'B', 7.00),
+                   (50.00, 'C', 6.00), (40.00, 'D', 5.00), (0.00, 'F', 0.00)) AS b(min_marks, grade, grade_points)
+WHERE s.department_id IS NULL AND s.effective_from = '2000-01';
@@ -0,0 +1,6 @@
+-- Cohort rank lists select a batch's (or department's) students and read all their published
+-- grades up to a semester
+CREATE INDEX IF NOT EXISTS idx_student_batch ON student(batch);
+CREATE INDEX IF NOT EXISTS idx_grade_calculation_published_student
+    ON grade_calculation(student_id, academic_year, semester)
+    WHERE status = 'PUBLISHED';
@@ -0,0 +1,15 @@
+-- Published results per student, rendered to JSON at publish time; one row per student, replaced
+-- on each publish. Students published before this table existed get theirs on first read.
+CREATE TABLE result_snapshot (
+    id BIGSERIAL PRIMARY KEY,
+    student_id BIGINT NOT NULL,
+    content TEXT NOT NULL,
+    grade_count INTEGER NOT NULL,
+    generated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    
+    CONSTRAINT uk_result_snapshot_student UNIQUE (student_id),
+    CONSTRAINT fk_result_snapshot_student FOREIGN KEY (student_id) REFERENCES student(id) ON DELETE CASCADE
+);
+
+-- Bulk approve and publish select one semester of a department's subjects
+CREATE INDEX IF NOT EXISTS idx_grade_calculation_year_semester_subject ON grade_calculation(academic_year, semester, subject_id);
@@ -0,0 +1,3 @@
+-- Exam statistics read every mark of one exam; with both values in the index this is an
+-- index-only scan
+CREATE INDEX IF NOT EXISTS idx_marks_exam ON marks(exam_id, marks_obtained, total_marks);
@@ -0,0 +1,19 @@
+-- Optimistic locking for edits of a fee; payments bump it too
+ALTER TABLE fees ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- One row per payment. A client-supplied idempotency key makes retries of the same payment
+-- return the recorded outcome instead of paying twice.
+CREATE TABLE fee_payment (
+    id BIGSERIAL PRIMARY KEY,
+    fee_id BIGINT NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    idempotency_key VARCHAR(255),
+    paid_amount_after DECIMAL(10,2),
+    payment_status_after VARCHAR(20),
+    paid_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    
+    CONSTRAINT uk_fee_payment_idempotency_key UNIQUE (idempotency_key),
+    CONSTRAINT fk_fee_payment_fee FOREIGN KEY (fee_id) REFERENCES fees(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_fee_payment_fee_id ON fee_payment(fee_id);
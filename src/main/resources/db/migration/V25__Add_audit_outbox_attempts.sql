@@ -0,0 +1,9 @@
+-- A row the sinks keep rejecting is retried up to app.audit.outbox.max-attempts times and then
+-- set aside with failed_at, so it cannot hold up the rows behind it
+ALTER TABLE audit_outbox ADD COLUMN attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE audit_outbox ADD COLUMN last_error VARCHAR(1000);
+ALTER TABLE audit_outbox ADD COLUMN failed_at TIMESTAMP;
+
+DROP INDEX IF EXISTS idx_audit_outbox_pending;
+CREATE INDEX idx_audit_outbox_pending ON audit_outbox(id) WHERE processed_at IS NULL AND failed_at IS NULL;
+CREATE INDEX idx_audit_outbox_failed_at ON audit_outbox(failed_at) WHERE failed_at IS NOT NULL;
@@ -0,0 +1,4 @@
+-- Keyset pages of one student's, one subject's or one day's attendance seek on (filter, id)
+CREATE INDEX IF NOT EXISTS idx_attendance_student_id ON attendance(student_id, id);
+CREATE INDEX IF NOT EXISTS idx_attendance_subject_id ON attendance(subject_id, id);
+CREATE INDEX IF NOT EXISTS idx_attendance_date_id ON attendance(date, id);